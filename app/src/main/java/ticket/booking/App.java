@@ -5,6 +5,9 @@ package ticket.booking;
 
 import ticket.booking.entities.Train;
 import ticket.booking.entities.User;
+import ticket.booking.entities.WaitlistEntry;
+import ticket.booking.services.BookingAnalytics;
+import ticket.booking.services.TrainAvailability;
 import ticket.booking.services.UserBookingService;
 import ticket.booking.util.UserServiceUtil;
 
@@ -83,13 +86,14 @@ public class App {
         }
 
         int option = 0;
-        while (option != 5) {
+        while (option != 6) {
             System.out.println("\nMain Menu:");
             System.out.println("1. Search Trains");
             System.out.println("2. Book a Ticket");
             System.out.println("3. View My Bookings");
             System.out.println("4. Cancel a Booking");
-            System.out.println("5. Logout & Exit");
+            System.out.println("5. View Booking Reports");
+            System.out.println("6. Logout & Exit");
 
             option = scanner.nextInt();
             scanner.nextLine(); // consume leftover newline
@@ -100,14 +104,31 @@ public class App {
                     String source = scanner.nextLine();
                     System.out.print("Enter destination station: ");
                     String destination = scanner.nextLine();
+                    System.out.print("Minimum free seats (0 for any): ");
+                    int minFreeSeats = scanner.nextInt();
+                    scanner.nextLine();
+
+                    String resolvedSource = userBookingService.resolveStation(source);
+                    String resolvedDestination = userBookingService.resolveStation(destination);
+                    if (resolvedSource != null && resolvedDestination != null) {
+                        System.out.println("Showing trains from " + resolvedSource + " to " + resolvedDestination);
+                    }
 
-                    List<Train> trains = userBookingService.searchTrains(source, destination);
+                    List<TrainAvailability> trains = userBookingService.searchAvailableTrains(source, destination, minFreeSeats, true);
                     if (trains.isEmpty()) {
                         System.out.println("No trains found between selected stations.");
+                        if (resolvedSource == null) {
+                            System.out.println("Did you mean: " + userBookingService.suggestStations(source, 5));
+                        }
+                        if (resolvedDestination == null) {
+                            System.out.println("Did you mean: " + userBookingService.suggestStations(destination, 5));
+                        }
                     } else {
-                        for (Train train : trains) {
+                        for (TrainAvailability result : trains) {
+                            Train train = result.getTrain();
                             System.out.println("\nTrain Number: " + train.getTrainNumber());
                             System.out.println("Train ID: " + train.getTrainId());
+                            System.out.println("Free Seats: " + result.getFreeSeats());
                             System.out.println("Route:");
                             train.getStationArrivalTimes().forEach((station, time) ->
                                     System.out.println(" - " + station + " at " + time));
@@ -129,7 +150,9 @@ public class App {
                     System.out.print("Enter destination station: ");
                     String end = scanner.nextLine();
 
-                    if (selectedTrain != null) {
+                    if (selectedTrain != null && !userBookingService.runsBetween(selectedTrain, start, end)) {
+                        System.out.println("Train " + selectedTrain.getTrainNumber() + " does not run from " + start + " to " + end + ".");
+                    } else if (selectedTrain != null) {
                         boolean booked = false;
                         while (!booked) {
                             System.out.println("Available Seats:");
@@ -150,7 +173,18 @@ public class App {
                                 System.out.println("Seat unavailable. Try again.");
                                 System.out.print("Retry? (yes/no): ");
                                 String retry = scanner.next();
-                                if (!retry.equalsIgnoreCase("yes")) break;
+                                if (!retry.equalsIgnoreCase("yes")) {
+                                    System.out.print("Join the waitlist for this train? (yes/no): ");
+                                    if (scanner.next().equalsIgnoreCase("yes")) {
+                                        try {
+                                            userBookingService.joinWaitlist(start, end, bookingDate, selectedTrain, WaitlistEntry.DEFAULT_PRIORITY_CLASS);
+                                            System.out.println("Added to the waitlist. You will be booked automatically when a seat frees up.");
+                                        } catch (IOException e) {
+                                            System.out.println("Could not join the waitlist: " + e.getMessage());
+                                        }
+                                    }
+                                    break;
+                                }
                             }
                         }
                     } else {
@@ -175,6 +209,22 @@ public class App {
                     break;
 
                 case 5:
+                    BookingAnalytics analytics = userBookingService.getAnalytics();
+
+                    System.out.println("Seat occupancy by train and date:");
+                    analytics.getLoadFactors().forEach((trainId, byDate) -> byDate.forEach((date, loadFactor) ->
+                            System.out.printf("  %s on %s: %.0f%% booked%n", trainId, date, loadFactor * 100)));
+
+                    System.out.println("Busiest segments:");
+                    analytics.getBusiestSegments(5).forEach((segment, passengers) ->
+                            System.out.println("  " + segment + ": " + passengers + " passengers"));
+
+                    System.out.println("Bookings by route:");
+                    analytics.getBookingsByStationPair().forEach((route, bookings) ->
+                            System.out.println("  " + route + ": " + bookings + " bookings"));
+                    break;
+
+                case 6:
                     System.out.println("Logged out. Goodbye!");
                     break;
 
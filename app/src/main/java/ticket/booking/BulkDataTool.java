@@ -0,0 +1,54 @@
+package ticket.booking;
+
+import ticket.booking.services.BulkImportService;
+import ticket.booking.services.UserBookingService;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Command-line entry point for bulk import and export of trains and users, run with
+ * {@code ./gradlew bulkData --args="<command> <file>"}.
+ */
+public class BulkDataTool {
+
+    private static final String USAGE = "Usage: bulkData <import-trains|import-users|export-trains|export-users> <file>";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println(USAGE);
+            System.exit(1);
+        }
+
+        Path file = Paths.get(args[1]);
+        BulkImportService bulkImportService = new BulkImportService(new UserBookingService());
+
+        switch (args[0]) {
+            case "import-trains":
+                report(bulkImportService.importTrains(file));
+                break;
+
+            case "import-users":
+                report(bulkImportService.importUsers(file));
+                break;
+
+            case "export-trains":
+                System.out.println("Exported " + bulkImportService.exportTrains(file) + " trains to " + file);
+                break;
+
+            case "export-users":
+                System.out.println("Exported " + bulkImportService.exportUsers(file) + " users to " + file);
+                break;
+
+            default:
+                System.out.println(USAGE);
+                System.exit(1);
+        }
+    }
+
+    private static void report(BulkImportService.ImportResult result) {
+        System.out.println(result);
+        result.getErrors().forEach(error -> System.out.println("  " + error));
+    }
+}
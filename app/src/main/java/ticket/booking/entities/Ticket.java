@@ -15,6 +15,9 @@ public class Ticket {
     private String destination;
     private String travelDate;
     private Train train;
+    private Integer row;
+    private Integer seat;
+    private String waitlistEntryId;
 
     public Ticket(String ticketId, String userId, String source, String destination, String travelDate, Train train) {
         this.ticketId = ticketId;
@@ -25,6 +28,12 @@ public class Ticket {
         this.train = train;
     }
 
+    public Ticket(String ticketId, String userId, String source, String destination, String travelDate, Train train, int row, int seat) {
+        this(ticketId, userId, source, destination, travelDate, train);
+        this.row = row;
+        this.seat = seat;
+    }
+
     public Ticket() {}
 
     public String getTicketId() {
@@ -75,6 +84,38 @@ public class Ticket {
         this.train = train;
     }
 
+    public Integer getRow() {
+        return row;
+    }
+
+    public void setRow(Integer row) {
+        this.row = row;
+    }
+
+    public Integer getSeat() {
+        return seat;
+    }
+
+    public void setSeat(Integer seat) {
+        this.seat = seat;
+    }
+
+    /**
+     * Returns whether this ticket records the seat it holds. Tickets booked
+     * before seat tracking was introduced do not.
+     */
+    public String getWaitlistEntryId() {
+        return waitlistEntryId;
+    }
+
+    public void setWaitlistEntryId(String waitlistEntryId) {
+        this.waitlistEntryId = waitlistEntryId;
+    }
+
+    public boolean hasSeat() {
+        return row != null && seat != null;
+    }
+
     public String getTicketInfo() {
         return String.format("Ticket ID: %s is confirmed! From %s to %s on %s.", ticketId, source, destination, travelDate);
     }
@@ -5,6 +5,9 @@ import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import com.fasterxml.jackson.databind.annotation.JsonNaming;
 
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -66,4 +69,113 @@ public class Train {
     public void setStations(List<String> stations) {
         this.stations = stations;
     }
+
+    /**
+     * Creates an independent copy of this train, including its seat layout,
+     * so that the copy can be modified without affecting shared instances.
+     *
+     * @return a deep copy of this train
+     */
+    public Train copy() {
+        List<List<Integer>> seatsCopy = null;
+        if (seats != null) {
+            seatsCopy = new ArrayList<>(seats.size());
+            for (List<Integer> row : seats) {
+                seatsCopy.add(new ArrayList<>(row));
+            }
+        }
+
+        return new Train(trainId, trainNumber, seatsCopy,
+                stationArrivalTimes == null ? null : new LinkedHashMap<>(stationArrivalTimes),
+                stations == null ? null : new ArrayList<>(stations));
+    }
+
+    /**
+     * Creates a copy of this train that cannot be modified: its setters throw, and its seat
+     * layout, route and arrival times are unmodifiable, so that it can be shared safely
+     * between readers. A train that is already read-only is returned as is.
+     *
+     * @return a read-only copy of this train
+     */
+    public Train readOnlyCopy() {
+        List<List<Integer>> seatsCopy = null;
+        if (seats != null) {
+            List<List<Integer>> rows = new ArrayList<>(seats.size());
+            for (List<Integer> row : seats) {
+                rows.add(Collections.unmodifiableList(new ArrayList<>(row)));
+            }
+            seatsCopy = Collections.unmodifiableList(rows);
+        }
+
+        return new ReadOnlyTrain(trainId, trainNumber, seatsCopy,
+                stationArrivalTimes == null ? null : Collections.unmodifiableMap(new LinkedHashMap<>(stationArrivalTimes)),
+                stations == null ? null : Collections.unmodifiableList(new ArrayList<>(stations)));
+    }
+
+    /**
+     * Returns a read-only train equal to this one except for the state of one seat. Only the
+     * changed row is copied; the other rows, the route and the arrival times are shared with
+     * this train if it is read-only.
+     *
+     * @param row   seat row
+     * @param seat  seat column
+     * @param state the new seat state, 0 for free and 1 for booked
+     * @return a read-only train with the seat changed
+     */
+    public Train withSeat(int row, int seat, int state) {
+        Train base = readOnlyCopy();
+        List<Integer> changedRow = new ArrayList<>(base.seats.get(row));
+        changedRow.set(seat, state);
+
+        List<List<Integer>> rows = new ArrayList<>(base.seats);
+        rows.set(row, Collections.unmodifiableList(changedRow));
+        return new ReadOnlyTrain(trainId, trainNumber, Collections.unmodifiableList(rows),
+                base.stationArrivalTimes, base.stations);
+    }
+
+    /**
+     * A train published in a catalog snapshot. Every setter throws, so a shared snapshot
+     * cannot be changed behind the catalog's indexes; use {@link #copy()} to edit a train.
+     */
+    private static final class ReadOnlyTrain extends Train {
+
+        private ReadOnlyTrain(String trainId, String trainNumber, List<List<Integer>> seats,
+                              Map<String, String> stationArrivalTimes, List<String> stations) {
+            super(trainId, trainNumber, seats, stationArrivalTimes, stations);
+        }
+
+        @Override
+        public void setTrainId(String trainId) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setTrainNumber(String trainNumber) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setSeats(List<List<Integer>> seats) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setStationArrivalTimes(Map<String, String> stationArrivalTimes) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setStations(List<String> stations) {
+            throw readOnly();
+        }
+
+        @Override
+        public Train readOnlyCopy() {
+            return this;
+        }
+
+        private static UnsupportedOperationException readOnly() {
+            return new UnsupportedOperationException("Published trains are read-only; modify a copy() instead");
+        }
+    }
 }
@@ -0,0 +1,104 @@
+package ticket.booking.entities;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class WaitlistEntry {
+
+    public static final int DEFAULT_PRIORITY_CLASS = 0;
+
+    private String entryId;
+    private String userId;
+    private String trainId;
+    private String source;
+    private String destination;
+    private String travelDate;
+    private int priorityClass;
+    private long sequence;
+
+    public WaitlistEntry(String entryId, String userId, String trainId, String source, String destination, String travelDate, int priorityClass, long sequence) {
+        this.entryId = entryId;
+        this.userId = userId;
+        this.trainId = trainId;
+        this.source = source;
+        this.destination = destination;
+        this.travelDate = travelDate;
+        this.priorityClass = priorityClass;
+        this.sequence = sequence;
+    }
+
+    public WaitlistEntry() {}
+
+    public String getEntryId() {
+        return entryId;
+    }
+
+    public void setEntryId(String entryId) {
+        this.entryId = entryId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getTrainId() {
+        return trainId;
+    }
+
+    public void setTrainId(String trainId) {
+        this.trainId = trainId;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public void setDestination(String destination) {
+        this.destination = destination;
+    }
+
+    public String getTravelDate() {
+        return travelDate;
+    }
+
+    public void setTravelDate(String travelDate) {
+        this.travelDate = travelDate;
+    }
+
+    /**
+     * Returns the priority class of this entry. Lower classes are promoted first.
+     */
+    public int getPriorityClass() {
+        return priorityClass;
+    }
+
+    public void setPriorityClass(int priorityClass) {
+        this.priorityClass = priorityClass;
+    }
+
+    /**
+     * Returns the order in which this entry joined the waitlist, used for FIFO within a class.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+}
@@ -0,0 +1,144 @@
+package ticket.booking.repository;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Embedded H2 database shared by the H2 repositories. Holds one connection, creates the
+ * schema and indexes on first use, and runs units of work in a transaction.
+ */
+public class H2Database implements AutoCloseable {
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS trains ("
+                    + "train_key VARCHAR(255) PRIMARY KEY, "
+                    + "train_number VARCHAR(64) NOT NULL, "
+                    + "seq BIGINT GENERATED BY DEFAULT AS IDENTITY, "
+                    + "data CLOB NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS idx_trains_number ON trains(train_number)",
+            "CREATE TABLE IF NOT EXISTS users ("
+                    + "user_id VARCHAR(64) PRIMARY KEY, "
+                    + "name VARCHAR(255) NOT NULL, "
+                    + "seq BIGINT GENERATED BY DEFAULT AS IDENTITY, "
+                    + "data CLOB NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS idx_users_name ON users(name)",
+            "CREATE TABLE IF NOT EXISTS tickets ("
+                    + "ticket_id VARCHAR(64) PRIMARY KEY, "
+                    + "user_id VARCHAR(64) NOT NULL, "
+                    + "train_key VARCHAR(255), "
+                    + "travel_date VARCHAR(32), "
+                    + "seq INT NOT NULL, "
+                    + "data CLOB NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS idx_tickets_user ON tickets(user_id, seq)",
+            "CREATE INDEX IF NOT EXISTS idx_tickets_train_date ON tickets(train_key, travel_date)",
+            "CREATE TABLE IF NOT EXISTS waitlist ("
+                    + "entry_id VARCHAR(64) PRIMARY KEY, "
+                    + "train_key VARCHAR(255) NOT NULL, "
+                    + "travel_date VARCHAR(32), "
+                    + "data CLOB NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS idx_waitlist_train_date ON waitlist(train_key, travel_date)"
+    };
+
+    private final Connection connection;
+
+    /**
+     * Opens the database at the given JDBC URL, for example {@code jdbc:h2:./trainmate},
+     * and creates any missing tables.
+     *
+     * @param url the JDBC URL of the database
+     * @throws IOException if the database cannot be opened
+     */
+    public H2Database(String url) throws IOException {
+        try {
+            connection = DriverManager.getConnection(url);
+            try (Statement statement = connection.createStatement()) {
+                for (String ddl : SCHEMA) {
+                    statement.execute(ddl);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to open database " + url, e);
+        }
+    }
+
+    /**
+     * Returns true if no trains, users or waitlist entries are stored yet, as in a newly
+     * created database.
+     *
+     * @throws IOException if a database error occurs
+     */
+    public boolean isEmpty() throws IOException {
+        return query(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery("SELECT (SELECT COUNT(*) FROM trains) + (SELECT COUNT(*) FROM users)"
+                         + " + (SELECT COUNT(*) FROM waitlist)")) {
+                return rows.next() && rows.getLong(1) == 0;
+            }
+        });
+    }
+
+    /**
+     * Work to run against the database connection.
+     */
+    public interface Work<T> {
+        T run(Connection connection) throws SQLException, IOException;
+    }
+
+    /**
+     * Runs read-only work on the shared connection.
+     *
+     * @param work the work to run
+     * @return the result of the work
+     * @throws IOException if a database error occurs
+     */
+    public synchronized <T> T query(Work<T> work) throws IOException {
+        try {
+            return work.run(connection);
+        } catch (SQLException e) {
+            throw new IOException("Database query failed", e);
+        }
+    }
+
+    /**
+     * Runs work in a single transaction, rolling everything back if any step fails. Work
+     * started while a transaction is already open on this thread joins that transaction
+     * and is committed or rolled back with it.
+     *
+     * @param work the work to run
+     * @throws IOException if a database error occurs
+     */
+    public synchronized void inTransaction(Work<?> work) throws IOException {
+        try {
+            if (!connection.getAutoCommit()) {
+                work.run(connection);
+                return;
+            }
+
+            connection.setAutoCommit(false);
+            try {
+                work.run(connection);
+                connection.commit();
+            } catch (SQLException | IOException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Database update failed", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new IOException("Failed to close database", e);
+        }
+    }
+}
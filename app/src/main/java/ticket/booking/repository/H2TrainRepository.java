@@ -0,0 +1,63 @@
+package ticket.booking.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ticket.booking.entities.Train;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Stores trains in the embedded H2 database, one row per train keyed by its lowercased ID.
+ * Writes only touch the rows of the trains that changed.
+ */
+public class H2TrainRepository implements TrainRepository {
+
+    private static final String UPSERT =
+            "MERGE INTO trains (train_key, train_number, data) KEY (train_key) VALUES (?, ?, ?)";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final H2Database database;
+
+    public H2TrainRepository(H2Database database) {
+        this.database = database;
+    }
+
+    @Override
+    public List<Train> findAll() throws IOException {
+        return database.query(connection -> {
+            List<Train> trains = new ArrayList<>();
+            try (PreparedStatement statement = connection.prepareStatement("SELECT data FROM trains ORDER BY seq");
+                 ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    trains.add(objectMapper.readValue(rows.getString(1), Train.class));
+                }
+            }
+            return trains;
+        });
+    }
+
+    @Override
+    public void save(Train train) throws IOException {
+        saveAll(Collections.singletonList(train));
+    }
+
+    @Override
+    public void saveAll(Collection<Train> trains) throws IOException {
+        database.inTransaction(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(UPSERT)) {
+                for (Train train : trains) {
+                    statement.setString(1, train.getTrainId().toLowerCase());
+                    statement.setString(2, train.getTrainNumber());
+                    statement.setString(3, objectMapper.writeValueAsString(train));
+                    statement.executeUpdate();
+                }
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,29 @@
+package ticket.booking.repository;
+
+import java.io.IOException;
+
+/**
+ * Unit of work for the H2 backend. All repository writes made by the work join a single
+ * database transaction.
+ */
+public class H2UnitOfWork implements UnitOfWork {
+
+    private final H2Database database;
+
+    public H2UnitOfWork(H2Database database) {
+        this.database = database;
+    }
+
+    @Override
+    public void run(Work work) throws IOException {
+        database.inTransaction(connection -> {
+            work.run();
+            return null;
+        });
+    }
+
+    @Override
+    public boolean isAtomic() {
+        return true;
+    }
+}
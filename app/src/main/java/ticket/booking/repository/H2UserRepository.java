@@ -0,0 +1,138 @@
+package ticket.booking.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ticket.booking.entities.Ticket;
+import ticket.booking.entities.User;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores users and their tickets in the embedded H2 database. Tickets live in their own
+ * table, indexed by user and by train and travel date, and are rewritten together with
+ * their user in one transaction.
+ */
+public class H2UserRepository implements UserRepository, TicketRepository {
+
+    private static final String UPSERT_USER =
+            "MERGE INTO users (user_id, name, data) KEY (user_id) VALUES (?, ?, ?)";
+    private static final String DELETE_TICKETS = "DELETE FROM tickets WHERE user_id = ?";
+    private static final String INSERT_TICKET =
+            "INSERT INTO tickets (ticket_id, user_id, train_key, travel_date, seq, data) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final H2Database database;
+
+    public H2UserRepository(H2Database database) {
+        this.database = database;
+    }
+
+    @Override
+    public List<User> findAll() throws IOException {
+        return database.query(connection -> {
+            Map<String, User> users = new LinkedHashMap<>();
+            try (PreparedStatement statement = connection.prepareStatement("SELECT data FROM users ORDER BY seq");
+                 ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    User user = objectMapper.readValue(rows.getString(1), User.class);
+                    user.setTicketsBooked(new ArrayList<>());
+                    users.put(user.getUserId(), user);
+                }
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement("SELECT user_id, data FROM tickets ORDER BY user_id, seq");
+                 ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    User user = users.get(rows.getString(1));
+                    if (user != null) {
+                        user.getTicketsBooked().add(objectMapper.readValue(rows.getString(2), Ticket.class));
+                    }
+                }
+            }
+            return new ArrayList<>(users.values());
+        });
+    }
+
+    @Override
+    public void save(User user) throws IOException {
+        saveAll(Collections.singletonList(user));
+    }
+
+    @Override
+    public void saveAll(Collection<User> users) throws IOException {
+        database.inTransaction(connection -> {
+            try (PreparedStatement upsertUser = connection.prepareStatement(UPSERT_USER);
+                 PreparedStatement deleteTickets = connection.prepareStatement(DELETE_TICKETS);
+                 PreparedStatement insertTicket = connection.prepareStatement(INSERT_TICKET)) {
+                for (User user : users) {
+                    writeUser(user, upsertUser, deleteTickets, insertTicket);
+                }
+                insertTicket.executeBatch();
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public List<Ticket> findByUserId(String userId) throws IOException {
+        return findTickets("SELECT data FROM tickets WHERE user_id = ? ORDER BY seq", userId);
+    }
+
+    @Override
+    public List<Ticket> findByTrainAndDate(String trainId, String travelDate) throws IOException {
+        return findTickets("SELECT data FROM tickets WHERE train_key = ? AND travel_date = ?", trainId.toLowerCase(), travelDate);
+    }
+
+    private void writeUser(User user, PreparedStatement upsertUser, PreparedStatement deleteTickets,
+                           PreparedStatement insertTicket) throws SQLException, IOException {
+        // Tickets are stored in their own table, so the user row is written without them
+        User row = new User(user.getName(), user.getPassword(), user.getHashedPassword(), null, user.getUserId());
+        upsertUser.setString(1, user.getUserId());
+        upsertUser.setString(2, user.getName());
+        upsertUser.setString(3, objectMapper.writeValueAsString(row));
+        upsertUser.executeUpdate();
+
+        deleteTickets.setString(1, user.getUserId());
+        deleteTickets.executeUpdate();
+
+        List<Ticket> tickets = user.getTicketsBooked() == null ? Collections.emptyList() : user.getTicketsBooked();
+        for (int i = 0; i < tickets.size(); i++) {
+            Ticket ticket = tickets.get(i);
+            insertTicket.setString(1, ticket.getTicketId());
+            insertTicket.setString(2, user.getUserId());
+            insertTicket.setString(3, ticket.getTrain() == null ? null : ticket.getTrain().getTrainId().toLowerCase());
+            insertTicket.setString(4, ticket.getTravelDate());
+            insertTicket.setInt(5, i);
+            insertTicket.setString(6, objectMapper.writeValueAsString(ticket));
+            insertTicket.addBatch();
+        }
+    }
+
+    private List<Ticket> findTickets(String sql, String... parameters) throws IOException {
+        return database.query(connection -> readTickets(connection, sql, parameters));
+    }
+
+    private List<Ticket> readTickets(Connection connection, String sql, String... parameters) throws SQLException, IOException {
+        List<Ticket> tickets = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setString(i + 1, parameters[i]);
+            }
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    tickets.add(objectMapper.readValue(rows.getString(1), Ticket.class));
+                }
+            }
+        }
+        return tickets;
+    }
+}
@@ -0,0 +1,69 @@
+package ticket.booking.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ticket.booking.entities.WaitlistEntry;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Stores waitlist entries in the embedded H2 database, indexed by train and travel date.
+ */
+public class H2WaitlistRepository implements WaitlistRepository {
+
+    private static final String INSERT =
+            "MERGE INTO waitlist (entry_id, train_key, travel_date, data) KEY (entry_id) VALUES (?, ?, ?, ?)";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final H2Database database;
+
+    public H2WaitlistRepository(H2Database database) {
+        this.database = database;
+    }
+
+    @Override
+    public List<WaitlistEntry> findAll() throws IOException {
+        return database.query(connection -> {
+            List<WaitlistEntry> entries = new ArrayList<>();
+            try (PreparedStatement statement = connection.prepareStatement("SELECT data FROM waitlist");
+                 ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    entries.add(objectMapper.readValue(rows.getString(1), WaitlistEntry.class));
+                }
+            }
+            return entries;
+        });
+    }
+
+    @Override
+    public void save(WaitlistEntry entry) throws IOException {
+        database.inTransaction(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+                statement.setString(1, entry.getEntryId());
+                statement.setString(2, entry.getTrainId().toLowerCase());
+                statement.setString(3, entry.getTravelDate());
+                statement.setString(4, objectMapper.writeValueAsString(entry));
+                statement.executeUpdate();
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteAll(Collection<WaitlistEntry> entries) throws IOException {
+        database.inTransaction(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("DELETE FROM waitlist WHERE entry_id = ?")) {
+                for (WaitlistEntry entry : entries) {
+                    statement.setString(1, entry.getEntryId());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,50 @@
+package ticket.booking.repository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ticket.booking.entities.Train;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores the train catalog as a single JSON array file. Every write rewrites the whole file.
+ */
+public class JsonTrainRepository implements TrainRepository {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final File file;
+    private final Map<String, Train> trains = new LinkedHashMap<>();
+
+    public JsonTrainRepository(String path) {
+        this.file = new File(path);
+    }
+
+    @Override
+    public synchronized List<Train> findAll() throws IOException {
+        trains.clear();
+        for (Train train : objectMapper.readValue(file, new TypeReference<List<Train>>() {})) {
+            trains.put(train.getTrainId().toLowerCase(), train);
+        }
+        return new ArrayList<>(trains.values());
+    }
+
+    @Override
+    public synchronized void save(Train train) throws IOException {
+        trains.put(train.getTrainId().toLowerCase(), train);
+        objectMapper.writeValue(file, trains.values());
+    }
+
+    @Override
+    public synchronized void saveAll(Collection<Train> updated) throws IOException {
+        for (Train train : updated) {
+            trains.put(train.getTrainId().toLowerCase(), train);
+        }
+        objectMapper.writeValue(file, trains.values());
+    }
+}
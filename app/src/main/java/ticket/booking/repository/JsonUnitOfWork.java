@@ -0,0 +1,20 @@
+package ticket.booking.repository;
+
+import java.io.IOException;
+
+/**
+ * Unit of work for the JSON backend. Each JSON file is rewritten on its own, so writes cannot
+ * be committed together and are applied one at a time.
+ */
+public class JsonUnitOfWork implements UnitOfWork {
+
+    @Override
+    public void run(Work work) throws IOException {
+        work.run();
+    }
+
+    @Override
+    public boolean isAtomic() {
+        return false;
+    }
+}
@@ -0,0 +1,70 @@
+package ticket.booking.repository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ticket.booking.entities.Ticket;
+import ticket.booking.entities.User;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Stores users, with their tickets embedded, as a single JSON array file.
+ * Every write rewrites the whole file, and ticket lookups scan the users last loaded or saved.
+ */
+public class JsonUserRepository implements UserRepository, TicketRepository {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final File file;
+    private final Map<String, User> users = new LinkedHashMap<>();
+
+    public JsonUserRepository(String path) {
+        this.file = new File(path);
+    }
+
+    @Override
+    public synchronized List<User> findAll() throws IOException {
+        users.clear();
+        for (User user : objectMapper.readValue(file, new TypeReference<List<User>>() {})) {
+            users.put(user.getUserId(), user);
+        }
+        return new ArrayList<>(users.values());
+    }
+
+    @Override
+    public synchronized void save(User user) throws IOException {
+        users.put(user.getUserId(), user);
+        objectMapper.writeValue(file, users.values());
+    }
+
+    @Override
+    public synchronized void saveAll(Collection<User> updated) throws IOException {
+        for (User user : updated) {
+            users.put(user.getUserId(), user);
+        }
+        objectMapper.writeValue(file, users.values());
+    }
+
+    @Override
+    public synchronized List<Ticket> findByUserId(String userId) {
+        User user = users.get(userId);
+        return user == null || user.getTicketsBooked() == null ? new ArrayList<>() : new ArrayList<>(user.getTicketsBooked());
+    }
+
+    @Override
+    public synchronized List<Ticket> findByTrainAndDate(String trainId, String travelDate) {
+        return users.values().stream()
+                .filter(user -> user.getTicketsBooked() != null)
+                .flatMap(user -> user.getTicketsBooked().stream())
+                .filter(ticket -> ticket.getTrain() != null
+                        && ticket.getTrain().getTrainId().equalsIgnoreCase(trainId)
+                        && travelDate.equals(ticket.getTravelDate()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,52 @@
+package ticket.booking.repository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ticket.booking.entities.WaitlistEntry;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores waitlist entries as a single JSON array file. A missing file means an empty waitlist.
+ */
+public class JsonWaitlistRepository implements WaitlistRepository {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final File file;
+    private final Map<String, WaitlistEntry> entries = new LinkedHashMap<>();
+
+    public JsonWaitlistRepository(String path) {
+        this.file = new File(path);
+    }
+
+    @Override
+    public synchronized List<WaitlistEntry> findAll() throws IOException {
+        entries.clear();
+        if (file.exists()) {
+            for (WaitlistEntry entry : objectMapper.readValue(file, new TypeReference<List<WaitlistEntry>>() {})) {
+                entries.put(entry.getEntryId(), entry);
+            }
+        }
+        return new ArrayList<>(entries.values());
+    }
+
+    @Override
+    public synchronized void save(WaitlistEntry entry) throws IOException {
+        entries.put(entry.getEntryId(), entry);
+        objectMapper.writeValue(file, entries.values());
+    }
+
+    @Override
+    public synchronized void deleteAll(Collection<WaitlistEntry> removed) throws IOException {
+        for (WaitlistEntry entry : removed) {
+            entries.remove(entry.getEntryId());
+        }
+        objectMapper.writeValue(file, entries.values());
+    }
+}
@@ -0,0 +1,217 @@
+package ticket.booking.repository;
+
+import ticket.booking.entities.WaitlistEntry;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Selects the storage backend and its locations. Settings are read from
+ * {@code trainmate.properties} on the classpath, which holds the defaults, and can be
+ * overridden with system properties of the same name, for example
+ * {@code -Dtrainmate.storage.backend=h2}.
+ * <ul>
+ *     <li>{@code trainmate.storage.backend}: {@code json} (default) or {@code h2}</li>
+ *     <li>{@code trainmate.storage.trains.path}: trains file for the JSON backend</li>
+ *     <li>{@code trainmate.storage.users.path}: users file for the JSON backend</li>
+ *     <li>{@code trainmate.storage.waitlist.path}: waitlist file for the JSON backend</li>
+ *     <li>{@code trainmate.storage.h2.url}: JDBC URL for the H2 backend</li>
+ * </ul>
+ * When the H2 backend opens a database that holds no data yet, it first imports the
+ * trains, users and waitlist from the configured JSON files, so switching backends
+ * keeps the existing data.
+ */
+public class StorageConfig {
+
+    public static final String BACKEND = "trainmate.storage.backend";
+    public static final String TRAINS_PATH = "trainmate.storage.trains.path";
+    public static final String USERS_PATH = "trainmate.storage.users.path";
+    public static final String WAITLIST_PATH = "trainmate.storage.waitlist.path";
+    public static final String H2_URL = "trainmate.storage.h2.url";
+
+    private static final String CONFIG_RESOURCE = "/trainmate.properties";
+
+    private final Properties properties;
+    private H2Database database;
+    private TrainRepository trainRepository;
+    private UserRepository userRepository;
+    private TicketRepository ticketRepository;
+    private WaitlistRepository waitlistRepository;
+    private UnitOfWork unitOfWork;
+
+    public StorageConfig(Properties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Loads the configuration from the classpath defaults and system property overrides.
+     *
+     * @return the storage configuration
+     * @throws IOException if the properties file is missing or cannot be read
+     */
+    public static StorageConfig load() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = StorageConfig.class.getResourceAsStream(CONFIG_RESOURCE)) {
+            if (in == null) {
+                throw new IOException("Missing storage configuration " + CONFIG_RESOURCE);
+            }
+            properties.load(in);
+        }
+
+        for (String key : new String[]{BACKEND, TRAINS_PATH, USERS_PATH, WAITLIST_PATH, H2_URL}) {
+            String override = System.getProperty(key);
+            if (override != null) {
+                properties.setProperty(key, override);
+            }
+        }
+
+        return new StorageConfig(properties);
+    }
+
+    /**
+     * Returns the configured backend name.
+     */
+    public String getBackend() {
+        return setting(BACKEND).toLowerCase();
+    }
+
+    /**
+     * Returns the train repository of the configured backend.
+     *
+     * @throws IOException if the backend cannot be opened
+     */
+    public synchronized TrainRepository trainRepository() throws IOException {
+        if (trainRepository == null) {
+            trainRepository = isH2() ? new H2TrainRepository(database()) : new JsonTrainRepository(setting(TRAINS_PATH));
+        }
+        return trainRepository;
+    }
+
+    /**
+     * Returns the user repository of the configured backend.
+     *
+     * @throws IOException if the backend cannot be opened
+     */
+    public synchronized UserRepository userRepository() throws IOException {
+        openUserStorage();
+        return userRepository;
+    }
+
+    /**
+     * Returns the ticket repository of the configured backend. It reads the same
+     * storage as {@link #userRepository()}.
+     *
+     * @throws IOException if the backend cannot be opened
+     */
+    public synchronized TicketRepository ticketRepository() throws IOException {
+        openUserStorage();
+        return ticketRepository;
+    }
+
+    /**
+     * Returns the waitlist repository of the configured backend.
+     *
+     * @throws IOException if the backend cannot be opened
+     */
+    public synchronized WaitlistRepository waitlistRepository() throws IOException {
+        if (waitlistRepository == null) {
+            waitlistRepository = isH2() ? new H2WaitlistRepository(database()) : new JsonWaitlistRepository(setting(WAITLIST_PATH));
+        }
+        return waitlistRepository;
+    }
+
+    /**
+     * Returns the unit of work of the configured backend, which groups writes to the
+     * repositories above.
+     *
+     * @throws IOException if the backend cannot be opened
+     */
+    public synchronized UnitOfWork unitOfWork() throws IOException {
+        if (unitOfWork == null) {
+            unitOfWork = isH2() ? new H2UnitOfWork(database()) : new JsonUnitOfWork();
+        }
+        return unitOfWork;
+    }
+
+    private void openUserStorage() throws IOException {
+        if (userRepository != null) {
+            return;
+        }
+
+        if (isH2()) {
+            H2UserRepository repository = new H2UserRepository(database());
+            userRepository = repository;
+            ticketRepository = repository;
+        } else {
+            JsonUserRepository repository = new JsonUserRepository(setting(USERS_PATH));
+            userRepository = repository;
+            ticketRepository = repository;
+        }
+    }
+
+    private H2Database database() throws IOException {
+        if (database == null) {
+            H2Database opened = new H2Database(setting(H2_URL));
+            try {
+                if (opened.isEmpty()) {
+                    importJsonData(opened);
+                }
+            } catch (IOException | RuntimeException e) {
+                opened.close();
+                throw e;
+            }
+            database = opened;
+        }
+        return database;
+    }
+
+    /**
+     * Copies the data of the JSON backend into a new H2 database in a single transaction,
+     * so a failed import leaves the database empty and is retried on the next open. Files
+     * that are not configured or do not exist are skipped.
+     */
+    private void importJsonData(H2Database database) throws IOException {
+        String trainsPath = existingFile(TRAINS_PATH);
+        String usersPath = existingFile(USERS_PATH);
+        String waitlistPath = existingFile(WAITLIST_PATH);
+
+        database.inTransaction(connection -> {
+            if (trainsPath != null) {
+                new H2TrainRepository(database).saveAll(new JsonTrainRepository(trainsPath).findAll());
+            }
+            if (usersPath != null) {
+                new H2UserRepository(database).saveAll(new JsonUserRepository(usersPath).findAll());
+            }
+            if (waitlistPath != null) {
+                H2WaitlistRepository waitlist = new H2WaitlistRepository(database);
+                for (WaitlistEntry entry : new JsonWaitlistRepository(waitlistPath).findAll()) {
+                    waitlist.save(entry);
+                }
+            }
+            return null;
+        });
+    }
+
+    private String existingFile(String key) {
+        String path = properties.getProperty(key);
+        return path != null && new File(path.trim()).exists() ? path.trim() : null;
+    }
+
+    private String setting(String key) {
+        String value = properties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing storage setting " + key);
+        }
+        return value.trim();
+    }
+
+    private boolean isH2() {
+        String backend = getBackend();
+        if (!backend.equals("json") && !backend.equals("h2")) {
+            throw new IllegalArgumentException("Unknown storage backend: " + backend);
+        }
+        return backend.equals("h2");
+    }
+}
@@ -0,0 +1,32 @@
+package ticket.booking.repository;
+
+import ticket.booking.entities.Ticket;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Read access to booked tickets. Tickets are written through {@link UserRepository}
+ * as part of the user who holds them.
+ */
+public interface TicketRepository {
+
+    /**
+     * Finds all tickets held by a user.
+     *
+     * @param userId the user ID
+     * @return list of tickets, empty if none
+     * @throws IOException if the storage cannot be read
+     */
+    List<Ticket> findByUserId(String userId) throws IOException;
+
+    /**
+     * Finds all tickets booked on a train for a given travel date.
+     *
+     * @param trainId    the train ID
+     * @param travelDate date of travel
+     * @return list of tickets, empty if none
+     * @throws IOException if the storage cannot be read
+     */
+    List<Ticket> findByTrainAndDate(String trainId, String travelDate) throws IOException;
+}
@@ -0,0 +1,37 @@
+package ticket.booking.repository;
+
+import ticket.booking.entities.Train;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Persistent storage for the train catalog. Trains are identified by their train ID, ignoring case.
+ */
+public interface TrainRepository {
+
+    /**
+     * Loads all stored trains.
+     *
+     * @return list of trains
+     * @throws IOException if the storage cannot be read
+     */
+    List<Train> findAll() throws IOException;
+
+    /**
+     * Inserts or replaces a single train.
+     *
+     * @param train the train to store
+     * @throws IOException if the storage cannot be written
+     */
+    void save(Train train) throws IOException;
+
+    /**
+     * Inserts or replaces many trains as one unit of work.
+     *
+     * @param trains the trains to store
+     * @throws IOException if the storage cannot be written
+     */
+    void saveAll(Collection<Train> trains) throws IOException;
+}
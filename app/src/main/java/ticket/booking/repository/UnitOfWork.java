@@ -0,0 +1,32 @@
+package ticket.booking.repository;
+
+import java.io.IOException;
+
+/**
+ * Groups writes to several repositories, such as a cancellation that saves users, removes
+ * promoted waitlist entries and releases seats.
+ */
+public interface UnitOfWork {
+
+    /**
+     * Writes to run as one unit.
+     */
+    interface Work {
+        void run() throws IOException;
+    }
+
+    /**
+     * Runs the given writes. On an atomic backend they are committed together or not at all;
+     * otherwise each write is applied as soon as it is made.
+     *
+     * @param work the writes to run
+     * @throws IOException if a write fails
+     */
+    void run(Work work) throws IOException;
+
+    /**
+     * Returns true if {@link #run(Work)} commits all writes together, false if writes that
+     * succeeded before a failure stay applied.
+     */
+    boolean isAtomic();
+}
@@ -0,0 +1,37 @@
+package ticket.booking.repository;
+
+import ticket.booking.entities.User;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Persistent storage for users together with the tickets they have booked.
+ */
+public interface UserRepository {
+
+    /**
+     * Loads all stored users, including their tickets.
+     *
+     * @return list of users
+     * @throws IOException if the storage cannot be read
+     */
+    List<User> findAll() throws IOException;
+
+    /**
+     * Inserts or replaces a single user and their tickets.
+     *
+     * @param user the user to store
+     * @throws IOException if the storage cannot be written
+     */
+    void save(User user) throws IOException;
+
+    /**
+     * Inserts or replaces many users and their tickets as one unit of work.
+     *
+     * @param users the users to store
+     * @throws IOException if the storage cannot be written
+     */
+    void saveAll(Collection<User> users) throws IOException;
+}
@@ -0,0 +1,38 @@
+package ticket.booking.repository;
+
+import ticket.booking.entities.WaitlistEntry;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Persistent storage for waitlist entries, so that waiting users survive restarts and can be
+ * promoted by cancellations made in any later session.
+ */
+public interface WaitlistRepository {
+
+    /**
+     * Loads all waiting entries.
+     *
+     * @return list of waitlist entries
+     * @throws IOException if the storage cannot be read
+     */
+    List<WaitlistEntry> findAll() throws IOException;
+
+    /**
+     * Stores a new waitlist entry.
+     *
+     * @param entry the entry to store
+     * @throws IOException if the storage cannot be written
+     */
+    void save(WaitlistEntry entry) throws IOException;
+
+    /**
+     * Removes entries that were promoted or withdrawn.
+     *
+     * @param entries the entries to remove
+     * @throws IOException if the storage cannot be written
+     */
+    void deleteAll(Collection<WaitlistEntry> entries) throws IOException;
+}
@@ -0,0 +1,162 @@
+package ticket.booking.services;
+
+import ticket.booking.entities.Ticket;
+import ticket.booking.entities.Train;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Occupancy analytics over booked tickets: load factor per train and date, traffic per
+ * segment between consecutive stations, and bookings per station pair.
+ * <p>
+ * Existing tickets are aggregated once with {@link #addAll(Collection)}, a parallel stream
+ * into {@link LongAdder} counters. Afterwards the counters are kept current incrementally
+ * from booking events, so reports never rescan the data and never block the booking path.
+ */
+public class BookingAnalytics implements BookingEventListener {
+
+    private static final String SEPARATOR = " -> ";
+
+    private final Counters counters = new Counters();
+
+    /**
+     * Adds the given tickets to the aggregates as if each had just been booked. Counts are
+     * only ever added to, so this may run while booking events are being recorded: a
+     * snapshot of the tickets taken when the listener was registered, plus the events
+     * since, gives the same totals in any order.
+     *
+     * @param tickets the booked tickets to aggregate
+     */
+    public void addAll(Collection<Ticket> tickets) {
+        tickets.parallelStream().forEach(ticket -> counters.record(ticket, 1));
+    }
+
+    @Override
+    public void onTicketBooked(Ticket ticket) {
+        counters.record(ticket, 1);
+    }
+
+    @Override
+    public void onTicketCancelled(Ticket ticket) {
+        counters.record(ticket, -1);
+    }
+
+    /**
+     * Returns the share of seats booked per train and travel date.
+     *
+     * @return map of train ID to a map of travel date to load factor between 0 and 1
+     */
+    public Map<String, Map<String, Double>> getLoadFactors() {
+        Counters current = counters;
+        Map<String, Map<String, Double>> loadFactors = new TreeMap<>();
+
+        current.bookingsByTrainDate.forEach((trainId, byDate) -> {
+            Integer capacity = current.capacities.get(trainId);
+            if (capacity == null || capacity == 0) {
+                return;
+            }
+
+            Map<String, Double> factors = new TreeMap<>();
+            byDate.forEach((date, bookings) -> factors.put(date, bookings.sum() / (double) capacity));
+            loadFactors.put(trainId, factors);
+        });
+
+        return loadFactors;
+    }
+
+    /**
+     * Returns the segments between consecutive stations carrying the most passengers.
+     *
+     * @param limit the maximum number of segments to return
+     * @return map of segment ("from -> to") to passenger count, busiest first
+     */
+    public Map<String, Long> getBusiestSegments(int limit) {
+        return topEntries(counters.passengersBySegment, limit);
+    }
+
+    /**
+     * Returns the number of bookings per source and destination pair.
+     *
+     * @return map of station pair ("source -> destination") to booking count, most booked first
+     */
+    public Map<String, Long> getBookingsByStationPair() {
+        return topEntries(counters.bookingsByStationPair, Integer.MAX_VALUE);
+    }
+
+    private static Map<String, Long> topEntries(Map<String, LongAdder> adders, int limit) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        adders.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().sum()))
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+
+    /**
+     * The aggregates. All maps are concurrent and all counts are
+     * {@link LongAdder}s, so recording from many threads never takes a lock.
+     */
+    private static class Counters {
+        private final Map<String, Integer> capacities = new ConcurrentHashMap<>();
+        private final Map<String, Map<String, LongAdder>> bookingsByTrainDate = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> passengersBySegment = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> bookingsByStationPair = new ConcurrentHashMap<>();
+
+        private void record(Ticket ticket, int delta) {
+            if (ticket.getSource() != null && ticket.getDestination() != null) {
+                increment(bookingsByStationPair,
+                        ticket.getSource().toLowerCase() + SEPARATOR + ticket.getDestination().toLowerCase(), delta);
+            }
+
+            Train train = ticket.getTrain();
+            if (train == null) {
+                return;
+            }
+
+            int capacity = capacityOf(train);
+            if (!Integer.valueOf(capacity).equals(capacities.get(train.getTrainId()))) {
+                capacities.put(train.getTrainId(), capacity);
+            }
+            if (ticket.getTravelDate() != null) {
+                increment(bookingsByTrainDate.computeIfAbsent(train.getTrainId(), id -> new ConcurrentHashMap<>()),
+                        ticket.getTravelDate(), delta);
+            }
+
+            List<String> stations = train.getStations();
+            if (stations == null || ticket.getSource() == null || ticket.getDestination() == null) {
+                return;
+            }
+
+            int from = stations.indexOf(ticket.getSource().toLowerCase());
+            int to = stations.indexOf(ticket.getDestination().toLowerCase());
+            if (from == -1 || to == -1) {
+                return;
+            }
+
+            for (int i = from; i < to; i++) {
+                increment(passengersBySegment, stations.get(i) + SEPARATOR + stations.get(i + 1), delta);
+            }
+        }
+
+        private static void increment(Map<String, LongAdder> adders, String key, int delta) {
+            adders.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+        }
+
+        private static int capacityOf(Train train) {
+            if (train.getSeats() == null) {
+                return 0;
+            }
+            return train.getSeats().stream().mapToInt(List::size).sum();
+        }
+    }
+}
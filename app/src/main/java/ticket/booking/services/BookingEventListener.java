@@ -0,0 +1,24 @@
+package ticket.booking.services;
+
+import ticket.booking.entities.Ticket;
+
+/**
+ * Receives booking events from {@link UserBookingService}. Listeners are called on the
+ * booking path and should return quickly without blocking.
+ */
+public interface BookingEventListener {
+
+    /**
+     * Called after a ticket has been booked, including tickets created by waitlist promotion.
+     *
+     * @param ticket the booked ticket
+     */
+    void onTicketBooked(Ticket ticket);
+
+    /**
+     * Called after a ticket has been cancelled.
+     *
+     * @param ticket the cancelled ticket
+     */
+    void onTicketCancelled(Ticket ticket);
+}
@@ -0,0 +1,403 @@
+package ticket.booking.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import ticket.booking.entities.Train;
+import ticket.booking.entities.User;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Bulk import and streaming export of trains and users.
+ * <p>
+ * Imports parse and validate all lines in parallel, then deduplicate them in a single
+ * pass against hash sets seeded from the stored data, and hand the survivors to
+ * {@link TrainService#addTrains} or {@link UserBookingService#addUsers} so the
+ * catalog is indexed and written once.
+ * <p>
+ * Supported formats:
+ * <ul>
+ *     <li>JSON lines ({@code .jsonl}): one train or user per line, in the same shape as the local JSON database</li>
+ *     <li>CSV ({@code .csv}, trains only): {@code train_id,train_number,rows,columns,stations}, where
+ *     stations are {@code name@HH:mm:ss} entries separated by {@code |}; seats start out free</li>
+ * </ul>
+ * Exports always write JSON lines, which can be imported again as is.
+ */
+public class BulkImportService {
+
+    private static final String CSV_HEADER = "train_id,train_number,rows,columns,stations";
+    private static final DateTimeFormatter ARRIVAL_TIME = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TrainService trainService;
+    private final UserBookingService userBookingService;
+
+    /**
+     * Creates a service that imports into the train catalog and users of the given booking service.
+     *
+     * @param userBookingService the booking service whose trains and users are imported and exported
+     */
+    public BulkImportService(UserBookingService userBookingService) {
+        this(userBookingService.getTrainService(), userBookingService);
+    }
+
+    public BulkImportService(TrainService trainService, UserBookingService userBookingService) {
+        this.trainService = trainService;
+        this.userBookingService = userBookingService;
+    }
+
+    /**
+     * Imports trains from a CSV or JSON-lines file. Trains whose ID or number already
+     * exists in the catalog or earlier in the file are skipped as duplicates.
+     *
+     * @param file the file to import, format chosen by its extension
+     * @return the outcome of the import
+     * @throws IOException if the file cannot be read or the catalog cannot be saved
+     */
+    public ImportResult importTrains(Path file) throws IOException {
+        Function<String, Train> parser = isCsv(file) ? this::parseTrainCsv : this::parseTrainJson;
+        List<Parsed<Train>> parsed = parseInParallel(readDataLines(file), parser, this::validateTrain);
+
+        TrainCatalog catalog = trainService.getCatalog();
+        Set<String> seenIds = new HashSet<>();
+        Set<String> seenNumbers = new HashSet<>();
+        ImportResult result = new ImportResult();
+        List<Train> accepted = new ArrayList<>();
+
+        for (Parsed<Train> entry : parsed) {
+            if (entry.error != null) {
+                result.errors.add(entry.error);
+                continue;
+            }
+
+            Train train = entry.value;
+            String id = train.getTrainId().toLowerCase();
+            if (catalog.findById(id) != null || catalog.findByNumber(train.getTrainNumber()) != null
+                    || !seenIds.add(id) || !seenNumbers.add(train.getTrainNumber())) {
+                result.duplicates++;
+                continue;
+            }
+            accepted.add(train);
+        }
+
+        if (!accepted.isEmpty()) {
+            trainService.addTrains(accepted);
+        }
+        result.imported = accepted.size();
+        return result;
+    }
+
+    /**
+     * Imports users from a JSON-lines file. Users whose ID is already stored or appears
+     * earlier in the file are skipped as duplicates.
+     *
+     * @param file the JSON-lines file to import
+     * @return the outcome of the import
+     * @throws IOException if the file cannot be read or the users cannot be saved
+     */
+    public ImportResult importUsers(Path file) throws IOException {
+        List<Parsed<User>> parsed = parseInParallel(readDataLines(file), this::parseUserJson, this::validateUser);
+
+        ImportResult result = new ImportResult();
+        Map<String, User> accepted = new LinkedHashMap<>();
+        for (Parsed<User> entry : parsed) {
+            if (entry.error != null) {
+                result.errors.add(entry.error);
+            } else if (accepted.putIfAbsent(entry.value.getUserId(), entry.value) != null) {
+                result.duplicates++;
+            }
+        }
+
+        result.imported = userBookingService.addUsers(accepted.values());
+        result.duplicates += accepted.size() - result.imported;
+        return result;
+    }
+
+    /**
+     * Streams the current train catalog to a JSON-lines file.
+     *
+     * @param file the file to write
+     * @return the number of trains written
+     * @throws IOException if writing fails
+     */
+    public int exportTrains(Path file) throws IOException {
+        return writeJsonLines(file, trainService.getCatalog().getTrains());
+    }
+
+    /**
+     * Streams all stored users, including their tickets, to a JSON-lines file.
+     *
+     * @param file the file to write
+     * @return the number of users written
+     * @throws IOException if writing fails
+     */
+    public int exportUsers(Path file) throws IOException {
+        return writeJsonLines(file, userBookingService.getUsers());
+    }
+
+    private int writeJsonLines(Path file, List<?> values) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+             SequenceWriter sequence = objectMapper.writer().withRootValueSeparator("\n").writeValues(writer)) {
+            for (Object value : values) {
+                sequence.write(value);
+            }
+        }
+        return values.size();
+    }
+
+    /**
+     * Reads all non-blank lines of a file, keeping their 1-based line numbers and
+     * dropping a leading CSV header.
+     */
+    private Map<Integer, String> readDataLines(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        Map<Integer, String> dataLines = new LinkedHashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (!line.isEmpty() && !(i == 0 && line.equalsIgnoreCase(CSV_HEADER))) {
+                dataLines.put(i + 1, line);
+            }
+        }
+        return dataLines;
+    }
+
+    /**
+     * Parses and validates lines on the common fork-join pool, keeping the input order.
+     */
+    private <T> List<Parsed<T>> parseInParallel(Map<Integer, String> lines, Function<String, T> parser, Function<T, String> validator) {
+        List<Map.Entry<Integer, String>> entries = new ArrayList<>(lines.entrySet());
+        return IntStream.range(0, entries.size())
+                .parallel()
+                .mapToObj(i -> {
+                    int lineNumber = entries.get(i).getKey();
+                    try {
+                        T value = parser.apply(entries.get(i).getValue());
+                        String problem = validator.apply(value);
+                        return problem == null ? Parsed.of(value) : Parsed.<T>failed("Line " + lineNumber + ": " + problem);
+                    } catch (RuntimeException e) {
+                        return Parsed.<T>failed("Line " + lineNumber + ": " + e.getMessage());
+                    }
+                })
+                .collect(Collectors.toList());
+    }
+
+    private <T> T readJson(String line, Class<T> type) {
+        try {
+            return objectMapper.readValue(line, type);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed JSON", e);
+        }
+    }
+
+    /**
+     * Reads a train from a JSON line and normalizes its station names as the CSV parser does:
+     * trimmed and lower-cased, in both the route and the arrival-time keys.
+     */
+    private Train parseTrainJson(String line) {
+        Train train = readJson(line, Train.class);
+        if (train.getStations() != null) {
+            List<String> stations = new ArrayList<>(train.getStations().size());
+            for (String station : train.getStations()) {
+                stations.add(normalizeStation(station));
+            }
+            train.setStations(stations);
+        }
+        if (train.getStationArrivalTimes() != null) {
+            Map<String, String> arrivalTimes = new LinkedHashMap<>();
+            train.getStationArrivalTimes().forEach((station, time) ->
+                    arrivalTimes.put(normalizeStation(station), time == null ? null : time.trim()));
+            train.setStationArrivalTimes(arrivalTimes);
+        }
+        return train;
+    }
+
+    /**
+     * Reads a user from a JSON line, giving users without tickets an empty ticket list.
+     */
+    private User parseUserJson(String line) {
+        User user = readJson(line, User.class);
+        if (user.getTicketsBooked() == null) {
+            user.setTicketsBooked(new ArrayList<>());
+        }
+        return user;
+    }
+
+    private Train parseTrainCsv(String line) {
+        String[] columns = line.split(",", -1);
+        if (columns.length != 5) {
+            throw new IllegalArgumentException("Expected 5 columns but found " + columns.length);
+        }
+
+        int rows = parseSeatCount(columns[2], "rows");
+        int seatsPerRow = parseSeatCount(columns[3], "columns");
+        List<List<Integer>> seats = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            seats.add(new ArrayList<>(Collections.nCopies(seatsPerRow, 0)));
+        }
+
+        Map<String, String> arrivalTimes = new LinkedHashMap<>();
+        List<String> stations = new ArrayList<>();
+        for (String stop : columns[4].split("\\|")) {
+            String[] parts = stop.split("@", 2);
+            String station = normalizeStation(parts[0]);
+            stations.add(station);
+            if (parts.length == 2) {
+                arrivalTimes.put(station, parts[1].trim());
+            }
+        }
+
+        return new Train(columns[0].trim(), columns[1].trim(), seats, arrivalTimes, stations);
+    }
+
+    /**
+     * Parses the row or column count of a CSV seat layout, which must be a positive number.
+     */
+    private static int parseSeatCount(String value, String column) {
+        int count;
+        try {
+            count = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " must be a number but was '" + value.trim() + "'");
+        }
+        if (count <= 0) {
+            throw new IllegalArgumentException(column + " must be greater than 0 but was " + count);
+        }
+        return count;
+    }
+
+    private static String normalizeStation(String station) {
+        return station == null ? null : station.trim().toLowerCase();
+    }
+
+    /**
+     * Returns a description of what is wrong with a train, or null if it is valid.
+     * Station names are expected to be normalized by the parser already.
+     */
+    private String validateTrain(Train train) {
+        if (isBlank(train.getTrainId()) || isBlank(train.getTrainNumber())) {
+            return "train_id and train_number are required";
+        }
+        if (train.getStations() == null || train.getStations().size() < 2) {
+            return "at least two stations are required";
+        }
+        if (train.getStations().stream().anyMatch(BulkImportService::isBlank)) {
+            return "station names must not be blank";
+        }
+        if (train.getStationArrivalTimes() != null) {
+            for (Map.Entry<String, String> arrival : train.getStationArrivalTimes().entrySet()) {
+                if (isBlank(arrival.getKey())) {
+                    return "station names must not be blank";
+                }
+                if (!isArrivalTime(arrival.getValue())) {
+                    return "arrival time at " + arrival.getKey() + " must be HH:mm:ss but was '" + arrival.getValue() + "'";
+                }
+            }
+        }
+        if (train.getSeats() == null || train.getSeats().isEmpty()) {
+            return "seat layout is required";
+        }
+        for (List<Integer> row : train.getSeats()) {
+            if (row == null || row.isEmpty()) {
+                return "every seat row needs at least one seat";
+            }
+            if (row.stream().anyMatch(seat -> seat == null || (seat != 0 && seat != 1))) {
+                return "seats must be 0 (free) or 1 (booked)";
+            }
+        }
+        return null;
+    }
+
+    private static boolean isArrivalTime(String value) {
+        if (value == null) {
+            return false;
+        }
+        try {
+            LocalTime.parse(value, ARRIVAL_TIME);
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns a description of what is wrong with a user, or null if it is valid.
+     */
+    private String validateUser(User user) {
+        if (isBlank(user.getUserId()) || isBlank(user.getName()) || isBlank(user.getHashedPassword())) {
+            return "user_id, name and hashed_password are required";
+        }
+        return null;
+    }
+
+    private static boolean isCsv(Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith(".csv");
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    /**
+     * Either a parsed value or the reason its line was rejected.
+     */
+    private static class Parsed<T> {
+        private final T value;
+        private final String error;
+
+        private Parsed(T value, String error) {
+            this.value = value;
+            this.error = error;
+        }
+
+        static <T> Parsed<T> of(T value) {
+            return new Parsed<>(value, null);
+        }
+
+        static <T> Parsed<T> failed(String error) {
+            return new Parsed<>(null, error);
+        }
+    }
+
+    /**
+     * Summary of an import run.
+     */
+    public static class ImportResult {
+        private int imported;
+        private int duplicates;
+        private final List<String> errors = new ArrayList<>();
+
+        public int getImported() {
+            return imported;
+        }
+
+        public int getDuplicates() {
+            return duplicates;
+        }
+
+        public List<String> getErrors() {
+            return errors;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Imported %d, skipped %d duplicates, rejected %d lines.", imported, duplicates, errors.size());
+        }
+    }
+}
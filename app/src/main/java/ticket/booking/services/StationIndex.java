@@ -0,0 +1,336 @@
+package ticket.booking.services;
+
+import ticket.booking.entities.Train;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Typo-tolerant lookup of canonical station names, built once from the stations of a
+ * catalog snapshot or of a single route. Stations are kept in a trie, which answers prefix
+ * queries for autocomplete and bounded edit-distance (Levenshtein) queries by walking the
+ * trie with one row of the distance table per depth, pruning branches that can no longer
+ * match.
+ * <p>
+ * The trie is built with sorted maps and then frozen into nodes holding their child labels
+ * as a sorted {@code char[]}, so lookups use a binary search and walks iterate plain arrays.
+ * A fuzzy query allocates its distance rows once, one per trie depth, and reuses them for
+ * every node at that depth.
+ */
+public class StationIndex {
+
+    private final Node root;
+    private final long stationsVersion;
+    private final int size;
+    private final int depth;
+
+    /**
+     * Builds an index over all stations served by the trains of a catalog snapshot.
+     *
+     * @param catalog the catalog snapshot to index
+     */
+    public StationIndex(TrainCatalog catalog) {
+        this(stationsOf(catalog), catalog.getStationsVersion());
+    }
+
+    /**
+     * Builds an index over the given stations, for example the route of one train.
+     *
+     * @param stations the station names to index
+     */
+    public StationIndex(Collection<String> stations) {
+        this(stations, 0);
+    }
+
+    private StationIndex(Iterable<String> stations, long stationsVersion) {
+        this.stationsVersion = stationsVersion;
+        Builder builder = new Builder();
+        for (String station : stations) {
+            builder.add(station);
+        }
+        this.root = builder.root.freeze();
+        this.size = builder.size;
+        this.depth = builder.depth;
+    }
+
+    private static List<String> stationsOf(TrainCatalog catalog) {
+        List<String> stations = new ArrayList<>();
+        for (Train train : catalog.getTrains()) {
+            if (train.getStations() != null) {
+                stations.addAll(train.getStations());
+            }
+        }
+        return stations;
+    }
+
+    /**
+     * Returns the stations version of the catalog this index was built from, or 0 if it
+     * was built from a list of stations.
+     */
+    public long getStationsVersion() {
+        return stationsVersion;
+    }
+
+    /**
+     * Returns the number of distinct stations in the index.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns stations whose name starts with the given prefix, in alphabetical order.
+     *
+     * @param prefix the partial station name
+     * @param limit  the maximum number of stations to return
+     * @return list of matching station names
+     */
+    public List<String> complete(String prefix, int limit) {
+        List<String> matches = new ArrayList<>();
+        Node node = root;
+        for (char c : normalize(prefix).toCharArray()) {
+            node = node.child(c);
+            if (node == null) {
+                return matches;
+            }
+        }
+        collect(node, matches, limit);
+        return matches;
+    }
+
+    /**
+     * Returns stations within the given edit distance of the input, closest first and
+     * alphabetically among equally close names.
+     *
+     * @param input       the possibly misspelled station name
+     * @param maxDistance the maximum number of single-character edits
+     * @param limit       the maximum number of stations to return
+     * @return list of matching station names
+     */
+    public List<String> fuzzyMatch(String input, int maxDistance, int limit) {
+        List<String> stations = new ArrayList<>();
+        for (Match match : fuzzyMatches(normalize(input), maxDistance)) {
+            if (stations.size() == limit) {
+                break;
+            }
+            stations.add(match.station);
+        }
+        return stations;
+    }
+
+    /**
+     * Resolves user input to a single canonical station: an exact name, else the only
+     * station starting with the input, else the closest station within the typo budget
+     * for the input's length. Ambiguous input resolves to nothing.
+     *
+     * @param input the station name as typed
+     * @return the canonical station name, or null if it cannot be resolved
+     */
+    public String resolve(String input) {
+        String word = normalize(input);
+        if (word.isEmpty()) {
+            return null;
+        }
+
+        List<String> completions = complete(word, 2);
+        if (!completions.isEmpty() && (completions.get(0).equals(word) || completions.size() == 1)) {
+            return completions.get(0);
+        }
+        if (completions.size() > 1) {
+            return null;
+        }
+
+        List<Match> candidates = fuzzyMatches(word, typoBudget(word));
+        if (candidates.size() == 1 || (candidates.size() > 1 && candidates.get(0).distance < candidates.get(1).distance)) {
+            return candidates.get(0).station;
+        }
+        return null;
+    }
+
+    /**
+     * Returns suggestions for a partially typed or misspelled station: prefix matches
+     * first, followed by close misspellings.
+     *
+     * @param input the station name as typed so far
+     * @param limit the maximum number of suggestions
+     * @return list of station names
+     */
+    public List<String> suggest(String input, int limit) {
+        String word = normalize(input);
+        List<String> suggestions = complete(word, limit);
+        if (suggestions.size() < limit && !word.isEmpty()) {
+            for (String station : fuzzyMatch(word, typoBudget(word), limit)) {
+                if (suggestions.size() < limit && !suggestions.contains(station)) {
+                    suggestions.add(station);
+                }
+            }
+        }
+        return suggestions;
+    }
+
+    private List<Match> fuzzyMatches(String word, int maxDistance) {
+        List<Match> matches = new ArrayList<>();
+        if (size == 0) {
+            return matches;
+        }
+
+        // rows[d] holds the distance row for the trie node at depth d on the current path
+        int[][] rows = new int[depth + 1][word.length() + 1];
+        for (int i = 0; i <= word.length(); i++) {
+            rows[0][i] = i;
+        }
+
+        char[] chars = word.toCharArray();
+        for (int i = 0; i < root.labels.length; i++) {
+            search(root.children[i], root.labels[i], 1, chars, rows, maxDistance, matches);
+        }
+
+        matches.sort(Comparator.comparingInt((Match m) -> m.distance).thenComparing(m -> m.station));
+        return matches;
+    }
+
+    private void collect(Node node, Collection<String> matches, int limit) {
+        if (matches.size() >= limit) {
+            return;
+        }
+        if (node.station != null) {
+            matches.add(node.station);
+        }
+        for (Node child : node.children) {
+            collect(child, matches, limit);
+        }
+    }
+
+    /**
+     * Extends the edit-distance table by one character of the trie path and descends
+     * only while some prefix of the input is still within the allowed distance. Only the
+     * band of cells within {@code maxDistance} of the diagonal can stay in budget, so only
+     * those are computed; the cells bordering the band are set to {@code maxDistance + 1}.
+     */
+    private void search(Node node, char c, int level, char[] word, int[][] rows, int maxDistance, List<Match> matches) {
+        int[] previousRow = rows[level - 1];
+        int[] row = rows[level];
+        int over = maxDistance + 1;
+        int from = Math.max(1, level - maxDistance);
+        int to = Math.min(word.length, level + maxDistance);
+
+        row[0] = Math.min(level, over);
+        int rowMin = row[0];
+        if (from > 1) {
+            row[from - 1] = over;
+        }
+        for (int i = from; i <= to; i++) {
+            int substitution = previousRow[i - 1] + (word[i - 1] == c ? 0 : 1);
+            row[i] = Math.min(over, Math.min(substitution, Math.min(row[i - 1] + 1, previousRow[i] + 1)));
+            rowMin = Math.min(rowMin, row[i]);
+        }
+        if (to < word.length) {
+            row[to + 1] = over;
+        }
+
+        if (node.station != null && to == word.length && row[to] <= maxDistance) {
+            matches.add(new Match(node.station, row[to]));
+        }
+        if (rowMin <= maxDistance) {
+            for (int i = 0; i < node.labels.length; i++) {
+                search(node.children[i], node.labels[i], level + 1, word, rows, maxDistance, matches);
+            }
+        }
+    }
+
+    /**
+     * Allows one typo in short names and two in longer ones.
+     */
+    private static int typoBudget(String word) {
+        return word.length() <= 4 ? 1 : 2;
+    }
+
+    private static String normalize(String station) {
+        return station == null ? "" : station.trim().toLowerCase();
+    }
+
+    /**
+     * Frozen trie node. {@code labels} is sorted, and {@code children[i]} is reached
+     * through {@code labels[i]}.
+     */
+    private static final class Node {
+        private static final char[] NO_LABELS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private final char[] labels;
+        private final Node[] children;
+        private final String station;
+
+        private Node(char[] labels, Node[] children, String station) {
+            this.labels = labels;
+            this.children = children;
+            this.station = station;
+        }
+
+        private Node child(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            return i < 0 ? null : children[i];
+        }
+    }
+
+    /**
+     * Collects stations into a mutable trie before it is frozen.
+     */
+    private static final class Builder {
+        private final BuildNode root = new BuildNode();
+        private int size;
+        private int depth;
+
+        private void add(String station) {
+            String word = normalize(station);
+            if (word.isEmpty()) {
+                return;
+            }
+
+            BuildNode node = root;
+            for (char c : word.toCharArray()) {
+                node = node.children.computeIfAbsent(c, k -> new BuildNode());
+            }
+            if (node.station == null) {
+                node.station = word;
+                size++;
+                depth = Math.max(depth, word.length());
+            }
+        }
+    }
+
+    private static final class BuildNode {
+        private final Map<Character, BuildNode> children = new TreeMap<>();
+        private String station;
+
+        private Node freeze() {
+            if (children.isEmpty()) {
+                return new Node(Node.NO_LABELS, Node.NO_CHILDREN, station);
+            }
+
+            char[] labels = new char[children.size()];
+            Node[] frozen = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, BuildNode> child : children.entrySet()) {
+                labels[i] = child.getKey();
+                frozen[i++] = child.getValue().freeze();
+            }
+            return new Node(labels, frozen, station);
+        }
+    }
+
+    private static class Match {
+        private final String station;
+        private final int distance;
+
+        private Match(String station, int distance) {
+            this.station = station;
+            this.distance = distance;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package ticket.booking.services;
+
+import ticket.booking.entities.Train;
+
+/**
+ * A train returned by an availability search, with its number of free seats.
+ */
+public class TrainAvailability {
+
+    private final Train train;
+    private final int freeSeats;
+
+    public TrainAvailability(Train train, int freeSeats) {
+        this.train = train;
+        this.freeSeats = freeSeats;
+    }
+
+    public Train getTrain() {
+        return train;
+    }
+
+    public int getFreeSeats() {
+        return freeSeats;
+    }
+}
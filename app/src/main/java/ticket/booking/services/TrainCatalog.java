@@ -0,0 +1,336 @@
+package ticket.booking.services;
+
+import ticket.booking.entities.Train;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Immutable, versioned snapshot of the train catalog.
+ * <p>
+ * Readers obtain a snapshot with a single volatile read in {@link TrainService} and never lock.
+ * Writers derive a new version through {@link #withTrain(Train)}, {@link #withTrains(Collection)}
+ * or {@link #withSeatChange(Train, int)}. Trains are stored in fixed-size chunks, and a new
+ * version shares every chunk it does not touch with the previous one: replacing a train copies
+ * the chunk table and one chunk, not the whole catalog. The lookup indexes are shared as well
+ * unless a train is added or renumbered, which copies them.
+ * Trains enter a snapshot as read-only copies ({@link Train#readOnlyCopy()}) whose setters and
+ * collections reject changes; use {@link Train#copy()} to obtain a modifiable one.
+ * <p>
+ * Each snapshot also carries a free-seat counter per train. Seat layouts are counted once when
+ * a train enters the catalog; bookings and releases then adjust the counter through
+ * {@link #withSeatChange(Train, int)}, so availability queries never scan seat layouts.
+ */
+public final class TrainCatalog {
+
+    private static final int CHUNK_BITS = 6;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final long version;
+    private final long stationsVersion;
+    private final Chunk[] chunks;
+    private final int size;
+    private final Map<String, Integer> idIndex;
+    private final Map<String, Integer> numberIndex;
+
+    private TrainCatalog(long version, long stationsVersion, Chunk[] chunks, int size,
+                         Map<String, Integer> idIndex, Map<String, Integer> numberIndex) {
+        this.version = version;
+        this.stationsVersion = stationsVersion;
+        this.chunks = chunks;
+        this.size = size;
+        this.idIndex = idIndex;
+        this.numberIndex = numberIndex;
+    }
+
+    /**
+     * Builds the first catalog version from the given trains, indexing them in one pass.
+     * Later entries with an already seen train ID replace the earlier ones.
+     *
+     * @param trainList the trains to include
+     * @return a new catalog snapshot with version 1
+     */
+    public static TrainCatalog of(List<Train> trainList) {
+        return build(1, 1, new Editor(new Chunk[0], 0), new HashMap<>(), new HashMap<>(), trainList);
+    }
+
+    /**
+     * Returns a new version of the catalog with all given trains added or replaced at once.
+     * The indexes are copied and extended a single time for the whole batch, and only the
+     * seat layouts of the given trains are counted; the other trains keep their counters.
+     *
+     * @param additions the trains to add or replace
+     * @return the next catalog version
+     */
+    public TrainCatalog withTrains(Collection<Train> additions) {
+        return build(version + 1, stationsVersion + 1, new Editor(chunks, size), new HashMap<>(idIndex),
+                new HashMap<>(numberIndex), additions);
+    }
+
+    private static TrainCatalog build(long version, long stationsVersion, Editor editor, Map<String, Integer> idIndex,
+                                      Map<String, Integer> numberIndex, Collection<Train> additions) {
+        for (Train added : additions) {
+            Train train = added.readOnlyCopy();
+            int free = countFreeSeats(train);
+            Integer position = idIndex.get(idKey(train));
+            if (position != null) {
+                numberIndex.remove(editor.trainAt(position).getTrainNumber());
+                editor.set(position, train, free);
+            } else {
+                position = editor.add(train, free);
+                idIndex.put(idKey(train), position);
+            }
+            numberIndex.put(train.getTrainNumber(), position);
+        }
+
+        return new TrainCatalog(version, stationsVersion, editor.chunks(), editor.size, idIndex, numberIndex);
+    }
+
+    /**
+     * Returns a new version of the catalog in which the given train is added, or replaces the
+     * train with the same ID (case-insensitive). This snapshot is left unchanged.
+     *
+     * @param updated the train to add or replace
+     * @return the next catalog version
+     */
+    public TrainCatalog withTrain(Train updated) {
+        Train train = updated.readOnlyCopy();
+        Integer position = idIndex.get(idKey(train));
+
+        if (position == null) {
+            Editor editor = new Editor(chunks, size);
+            int added = editor.add(train, countFreeSeats(train));
+
+            Map<String, Integer> nextIds = new HashMap<>(idIndex);
+            nextIds.put(idKey(train), added);
+            Map<String, Integer> nextNumbers = new HashMap<>(numberIndex);
+            nextNumbers.put(train.getTrainNumber(), added);
+
+            return new TrainCatalog(version + 1, stationsVersion + 1, editor.chunks(), editor.size, nextIds, nextNumbers);
+        }
+
+        return replace(position, train, countFreeSeats(train));
+    }
+
+    /**
+     * Returns a new version of the catalog in which an existing train is replaced after a
+     * seat booking or release. The free-seat counter is adjusted by the given delta instead
+     * of recounting the seat layout, and a train that is already read-only, such as one from
+     * {@link Train#withSeat(int, int, int)}, is published as is.
+     *
+     * @param train     the updated train, which must already be in the catalog
+     * @param seatDelta the change in free seats, negative for bookings
+     * @return the next catalog version
+     */
+    public TrainCatalog withSeatChange(Train train, int seatDelta) {
+        Integer position = idIndex.get(idKey(train));
+        if (position == null) {
+            throw new IllegalArgumentException("Unknown train: " + train.getTrainId());
+        }
+        return replace(position, train.readOnlyCopy(), freeSeatsAt(position) + seatDelta);
+    }
+
+    private TrainCatalog replace(int position, Train train, int trainFreeSeats) {
+        Train previous = trainAt(position);
+        Editor editor = new Editor(chunks, size);
+        editor.set(position, train, trainFreeSeats);
+
+        // The ID index is positional and can be shared as is; the number index only changes
+        // when the train number itself was edited.
+        Map<String, Integer> nextNumbers = numberIndex;
+        if (!previous.getTrainNumber().equals(train.getTrainNumber())) {
+            nextNumbers = new HashMap<>(numberIndex);
+            nextNumbers.remove(previous.getTrainNumber());
+            nextNumbers.put(train.getTrainNumber(), position);
+        }
+
+        // Seat bookings leave the route untouched, so station lookups built on this catalog stay valid
+        boolean sameStations = Objects.equals(previous.getStations(), train.getStations());
+        return new TrainCatalog(version + 1, sameStations ? stationsVersion : stationsVersion + 1,
+                editor.chunks(), size, idIndex, nextNumbers);
+    }
+
+    /**
+     * Returns the version of this snapshot. Every published change increments it.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the version of the set of stations in this snapshot. It only changes when
+     * a published change may have added, removed or renamed stations.
+     */
+    public long getStationsVersion() {
+        return stationsVersion;
+    }
+
+    /**
+     * Returns an unmodifiable view of all trains in this snapshot.
+     */
+    public List<Train> getTrains() {
+        return new TrainList();
+    }
+
+    /**
+     * Returns the number of trains in this snapshot.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Looks up a train by its ID, ignoring case.
+     *
+     * @param trainId the train ID
+     * @return the Train object if found, else null
+     */
+    public Train findById(String trainId) {
+        Integer position = idIndex.get(trainId.toLowerCase());
+        return position == null ? null : trainAt(position);
+    }
+
+    /**
+     * Looks up a train by its train number.
+     *
+     * @param trainNumber the train number
+     * @return the Train object if found, else null
+     */
+    public Train findByNumber(String trainNumber) {
+        Integer position = numberIndex.get(trainNumber);
+        return position == null ? null : trainAt(position);
+    }
+
+    /**
+     * Returns the number of free seats on a train, as maintained by this catalog.
+     *
+     * @param trainId the train ID
+     * @return the number of free seats, or 0 if the train is unknown
+     */
+    public int getFreeSeats(String trainId) {
+        Integer position = idIndex.get(trainId.toLowerCase());
+        return position == null ? 0 : freeSeatsAt(position);
+    }
+
+    private Train trainAt(int position) {
+        return chunks[position >>> CHUNK_BITS].trains[position & CHUNK_MASK];
+    }
+
+    private int freeSeatsAt(int position) {
+        return chunks[position >>> CHUNK_BITS].freeSeats[position & CHUNK_MASK];
+    }
+
+    private static int countFreeSeats(Train train) {
+        int free = 0;
+        if (train.getSeats() != null) {
+            for (List<Integer> row : train.getSeats()) {
+                for (Integer seat : row) {
+                    if (seat != null && seat == 0) {
+                        free++;
+                    }
+                }
+            }
+        }
+        return free;
+    }
+
+    private static String idKey(Train train) {
+        return train.getTrainId().toLowerCase();
+    }
+
+    /**
+     * Up to {@link #CHUNK_SIZE} consecutive trains and their free-seat counters. A chunk is
+     * never modified once it belongs to a published snapshot.
+     */
+    private static final class Chunk {
+        private final Train[] trains = new Train[CHUNK_SIZE];
+        private final int[] freeSeats = new int[CHUNK_SIZE];
+
+        private Chunk copy() {
+            Chunk copy = new Chunk();
+            System.arraycopy(trains, 0, copy.trains, 0, CHUNK_SIZE);
+            System.arraycopy(freeSeats, 0, copy.freeSeats, 0, CHUNK_SIZE);
+            return copy;
+        }
+    }
+
+    /**
+     * Derives the chunks of a new version from those of an existing one. Each chunk that is
+     * written to is copied once, however many of its trains change.
+     */
+    private static final class Editor {
+        private final Set<Chunk> copied = Collections.newSetFromMap(new IdentityHashMap<>());
+        private Chunk[] chunks;
+        private int size;
+
+        private Editor(Chunk[] chunks, int size) {
+            this.chunks = chunks.clone();
+            this.size = size;
+        }
+
+        private Train trainAt(int position) {
+            return chunks[position >>> CHUNK_BITS].trains[position & CHUNK_MASK];
+        }
+
+        private void set(int position, Train train, int free) {
+            Chunk chunk = writableChunk(position >>> CHUNK_BITS);
+            chunk.trains[position & CHUNK_MASK] = train;
+            chunk.freeSeats[position & CHUNK_MASK] = free;
+        }
+
+        private int add(Train train, int free) {
+            int position = size++;
+            int index = position >>> CHUNK_BITS;
+            if (index == chunks.length) {
+                chunks = Arrays.copyOf(chunks, Math.max(1, chunks.length * 2));
+            }
+            if (chunks[index] == null) {
+                chunks[index] = new Chunk();
+                copied.add(chunks[index]);
+            }
+            set(position, train, free);
+            return position;
+        }
+
+        private Chunk writableChunk(int index) {
+            Chunk chunk = chunks[index];
+            if (!copied.contains(chunk)) {
+                chunk = chunk.copy();
+                chunks[index] = chunk;
+                copied.add(chunk);
+            }
+            return chunk;
+        }
+
+        private Chunk[] chunks() {
+            int used = (size + CHUNK_MASK) >>> CHUNK_BITS;
+            return used == chunks.length ? chunks : Arrays.copyOf(chunks, used);
+        }
+    }
+
+    /**
+     * Read-only list view over the trains of this snapshot.
+     */
+    private final class TrainList extends AbstractList<Train> implements RandomAccess {
+        @Override
+        public Train get(int index) {
+            Objects.checkIndex(index, size);
+            return trainAt(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
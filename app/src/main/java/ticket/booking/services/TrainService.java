@@ -1,32 +1,53 @@
 package ticket.booking.services;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import ticket.booking.entities.Ticket;
 import ticket.booking.entities.Train;
+import ticket.booking.repository.StorageConfig;
+import ticket.booking.repository.TrainRepository;
 
-import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Optional;
-import java.util.OptionalInt;
+import java.util.Map;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 public class TrainService {
 
-    private static final String TRAIN_PATH = "app/src/main/java/ticket/booking/localDB/trains.json";
-
-    private List<Train> trainList;
-    private ObjectMapper objectMapper = new ObjectMapper();
+    private final TrainRepository trainRepository;
+    private volatile TrainCatalog catalog;
+    private volatile StationIndex stationIndex;
 
     /**
-     * Initializes TrainService by loading train data from local JSON database.
+     * Initializes TrainService by loading train data from the configured storage backend.
      *
-     * @throws IOException if there's an issue reading from the file
+     * @throws IOException if there's an issue reading from storage
      */
     public TrainService() throws IOException {
-        File trains = new File(TRAIN_PATH);
-        trainList = objectMapper.readValue(trains, new TypeReference<List<Train>>() {});
+        this(StorageConfig.load().trainRepository());
+    }
+
+    /**
+     * Initializes TrainService by loading train data from the given repository.
+     *
+     * @param trainRepository the storage to load trains from and save them to
+     * @throws IOException if there's an issue reading from storage
+     */
+    public TrainService(TrainRepository trainRepository) throws IOException {
+        this.trainRepository = trainRepository;
+        catalog = TrainCatalog.of(trainRepository.findAll());
+    }
+
+    /**
+     * Returns the current immutable catalog snapshot. Readers should grab it once
+     * and work against it, so that a search sees one consistent version.
+     *
+     * @return the latest published catalog
+     */
+    public TrainCatalog getCatalog() {
+        return catalog;
     }
 
     /**
@@ -36,16 +57,7 @@ public class TrainService {
      * @param train the Train object to add or update
      */
     public void addTrain(Train train) {
-        Optional<Train> existingTrain = trainList.stream()
-                .filter(t -> t.getTrainId().equalsIgnoreCase(train.getTrainId()))
-                .findFirst();
-
-        if (existingTrain.isPresent()) {
-            updateTrain(train);
-        } else {
-            trainList.add(train);
-            saveTrainList();
-        }
+        publish(train);
     }
 
     /**
@@ -55,44 +67,252 @@ public class TrainService {
      * @param train the Train object with updated details
      */
     public void updateTrain(Train train) {
-        OptionalInt index = IntStream.range(0, trainList.size())
-                .filter(i -> trainList.get(i).getTrainId().equalsIgnoreCase(train.getTrainId()))
-                .findFirst();
-
-        if (index.isPresent()) {
-            trainList.set(index.getAsInt(), train);
-            saveTrainList();
-        } else {
-            // Train not found by ID, add as new
-            addTrain(train);
+        publish(train);
+    }
+
+    /**
+     * Adds or updates many trains at once. The catalog is republished and saved a single
+     * time for the whole batch, which keeps bulk loads linear in the number of trains.
+     *
+     * @param trains the Train objects to add or update
+     */
+    public synchronized void addTrains(Collection<Train> trains) {
+        TrainCatalog next = catalog.withTrains(trains);
+        saveTrains(trains);
+        catalog = next;
+    }
+
+    /**
+     * Marks a seat as booked on the latest version of the given train.
+     * The check and the update happen atomically with respect to other writers.
+     *
+     * @param trainId the ID of the train
+     * @param row     seat row
+     * @param seat    seat column
+     * @return the published, read-only Train object, or null if the train is unknown or the seat is not available
+     */
+    public synchronized Train bookSeat(String trainId, int row, int seat) {
+        Train current = catalog.findById(trainId);
+        if (current == null || !isSeatAvailable(current, row, seat)) {
+            return null;
+        }
+
+        Train updated = current.withSeat(row, seat, 1);
+        publishSeatChange(updated, -1);
+        return updated;
+    }
+
+    /**
+     * Frees the seats held by the given tickets on the latest versions of their trains.
+     * The changed trains are saved together first and then published as one catalog
+     * update, so a failed save leaves the catalog unchanged.
+     *
+     * @param ticketsByTrain tickets whose seats should be released, by train ID
+     * @return the number of seats released
+     * @throws IOException if the changed trains cannot be saved
+     */
+    public synchronized int releaseSeats(Map<String, ? extends Collection<Ticket>> ticketsByTrain) throws IOException {
+        TrainCatalog next = catalog;
+        List<Train> changed = new ArrayList<>();
+        int released = 0;
+
+        for (Map.Entry<String, ? extends Collection<Ticket>> entry : ticketsByTrain.entrySet()) {
+            Train current = next.findById(entry.getKey());
+            if (current == null) {
+                continue;
+            }
+
+            Train updated = current;
+            int trainReleased = 0;
+            for (Ticket ticket : entry.getValue()) {
+                if (ticket.hasSeat() && isSeatBooked(updated, ticket.getRow(), ticket.getSeat())) {
+                    updated = updated.withSeat(ticket.getRow(), ticket.getSeat(), 0);
+                    trainReleased++;
+                }
+            }
+
+            if (trainReleased > 0) {
+                next = next.withSeatChange(updated, trainReleased);
+                changed.add(updated);
+                released += trainReleased;
+            }
         }
+
+        if (!changed.isEmpty()) {
+            trainRepository.saveAll(changed);
+            catalog = next;
+        }
+        return released;
     }
 
     /**
      * Searches and returns all trains that go from the given source to destination
-     * in the correct travel order.
+     * in the correct travel order. Partial or misspelled station names are resolved
+     * through the station index first.
      *
      * @param source      the source station
      * @param destination the destination station
      * @return list of matching Train objects
      */
     public List<Train> searchTrains(String source, String destination) {
-        return trainList.stream()
-                .filter(train -> validTrain(train, source, destination))
+        return findOnRoute(source, destination, 0).stream()
+                .map(TrainAvailability::getTrain)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Saves the current train list to the JSON file.
+     * Searches trains from source to destination together with their free-seat counts,
+     * optionally keeping only trains with enough free seats and sorting by availability.
+     * Counts come from the catalog's maintained counters, so this costs no more than
+     * {@link #searchTrains(String, String)}.
+     *
+     * @param source         the source station
+     * @param destination    the destination station
+     * @param minFreeSeats   the minimum number of free seats, 0 to keep every train
+     * @param mostFreeFirst  true to sort by free seats, most first; false to keep catalog order
+     * @return list of matching trains with their availability
      */
-    private void saveTrainList() {
+    public List<TrainAvailability> searchAvailableTrains(String source, String destination, int minFreeSeats, boolean mostFreeFirst) {
+        List<TrainAvailability> results = findOnRoute(source, destination, minFreeSeats);
+        if (mostFreeFirst) {
+            results.sort(Comparator.comparingInt(TrainAvailability::getFreeSeats).reversed());
+        }
+        return results;
+    }
+
+    /**
+     * Resolves the station names and returns, in catalog order, the trains of one catalog
+     * snapshot that run from source to destination with at least the given free seats.
+     */
+    private List<TrainAvailability> findOnRoute(String source, String destination, int minFreeSeats) {
+        StationIndex stations = getStationIndex();
+        String resolvedSource = resolveOrKeep(stations, source);
+        String resolvedDestination = resolveOrKeep(stations, destination);
+        TrainCatalog snapshot = catalog;
+
+        List<TrainAvailability> results = new ArrayList<>();
+        for (Train train : snapshot.getTrains()) {
+            if (!validTrain(train, resolvedSource, resolvedDestination)) {
+                continue;
+            }
+            int free = snapshot.getFreeSeats(train.getTrainId());
+            if (free >= minFreeSeats) {
+                results.add(new TrainAvailability(train, free));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns the station lookup index for the current catalog. The index is rebuilt
+     * only after a change to the catalog's stations, not after seat bookings.
+     *
+     * @return the station index
+     */
+    public StationIndex getStationIndex() {
+        TrainCatalog current = catalog;
+        StationIndex index = stationIndex;
+        if (index == null || index.getStationsVersion() != current.getStationsVersion()) {
+            index = new StationIndex(current);
+            stationIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Resolves a partial or misspelled station name to a canonical station.
+     *
+     * @param input the station name as typed
+     * @return the canonical station name, or null if it cannot be resolved
+     */
+    public String resolveStation(String input) {
+        return getStationIndex().resolve(input);
+    }
+
+    /**
+     * Suggests stations for a partially typed or misspelled name.
+     *
+     * @param input the station name as typed so far
+     * @param limit the maximum number of suggestions
+     * @return list of station names
+     */
+    public List<String> suggestStations(String input, int limit) {
+        return getStationIndex().suggest(input, limit);
+    }
+
+    /**
+     * Resolves a partial or misspelled station name against the route of one train only,
+     * so stations elsewhere in the network neither win nor make the input ambiguous.
+     *
+     * @param train the train whose stations to match
+     * @param input the station name as typed
+     * @return the station on the train's route, or null if it cannot be resolved there
+     */
+    public String resolveStationOnRoute(Train train, String input) {
+        return train.getStations() == null ? null : new StationIndex(train.getStations()).resolve(input);
+    }
+
+    /**
+     * Checks whether a train runs from source to destination, in that order, resolving
+     * both names against its route.
+     *
+     * @param train       the train to check
+     * @param source      the departure station as typed
+     * @param destination the arrival station as typed
+     * @return true if both stations are on the route and source comes first
+     */
+    public boolean runsBetween(Train train, String source, String destination) {
+        if (train.getStations() == null) {
+            return false;
+        }
+        StationIndex route = new StationIndex(train.getStations());
+        String from = route.resolve(source);
+        String to = route.resolve(destination);
+        return from != null && to != null && validTrain(train, from, to);
+    }
+
+    /**
+     * Persists the given train and publishes a new catalog version containing it. Writers are
+     * serialized; readers keep using whichever snapshot they already hold. The new version is
+     * only published once the train is saved.
+     *
+     * @param train the train to add or replace
+     */
+    private synchronized void publish(Train train) {
+        TrainCatalog next = catalog.withTrain(train);
+        saveTrains(Collections.singletonList(train));
+        catalog = next;
+    }
+
+    /**
+     * Persists a train whose seats were booked or released and publishes a new catalog
+     * version with it, adjusting its free-seat counter by the given delta.
+     *
+     * @param train     the updated train
+     * @param seatDelta the change in free seats, negative for bookings
+     */
+    private synchronized void publishSeatChange(Train train, int seatDelta) {
+        TrainCatalog next = catalog.withSeatChange(train, seatDelta);
+        saveTrains(Collections.singletonList(train));
+        catalog = next;
+    }
+
+    /**
+     * Saves the changed trains to the storage backend.
+     */
+    private void saveTrains(Collection<Train> trains) {
         try {
-            objectMapper.writeValue(new File(TRAIN_PATH), trainList);
+            trainRepository.saveAll(trains);
         } catch (IOException e) {
             throw new RuntimeException("Failed to save train list", e);
         }
     }
 
+    private String resolveOrKeep(StationIndex stations, String input) {
+        String resolved = stations.resolve(input);
+        return resolved != null ? resolved : input;
+    }
+
     /**
      * Checks if a train travels from source to destination in order.
      *
@@ -117,10 +337,40 @@ public class TrainService {
      * @return the Train object if found, else null
      */
     public Train trainExist(String trainNumber) {
-        Optional<Train> findTrain = trainList.stream()
-                .filter(train -> train.getTrainNumber().equals(trainNumber))
-                .findFirst();
+        return catalog.findByNumber(trainNumber);
+    }
+
+    /**
+     * Checks whether a seat is booked on the latest version of a train.
+     *
+     * @param trainId the ID of the train
+     * @param row     seat row
+     * @param seat    seat column
+     * @return true if the train is known and the seat is booked, false otherwise
+     */
+    public boolean isSeatBooked(String trainId, int row, int seat) {
+        Train current = catalog.findById(trainId);
+        return current != null && isSeatBooked(current, row, seat);
+    }
+
+    /**
+     * Checks whether a given seat is within valid bounds and available.
+     */
+    private boolean isSeatAvailable(Train train, int row, int seat) {
+        return isSeatInBounds(train, row, seat) && train.getSeats().get(row).get(seat) == 0;
+    }
+
+    /**
+     * Checks whether a given seat is within valid bounds and booked.
+     */
+    private boolean isSeatBooked(Train train, int row, int seat) {
+        return isSeatInBounds(train, row, seat) && train.getSeats().get(row).get(seat) == 1;
+    }
 
-        return findTrain.orElse(null);
+    private boolean isSeatInBounds(Train train, int row, int seat) {
+        List<List<Integer>> seats = train.getSeats();
+        return seats != null
+                && row >= 0 && row < seats.size()
+                && seat >= 0 && seat < seats.get(row).size();
     }
 }
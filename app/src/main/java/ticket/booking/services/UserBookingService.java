@@ -1,26 +1,44 @@
 package ticket.booking.services;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import ticket.booking.entities.Ticket;
 import ticket.booking.entities.Train;
 import ticket.booking.entities.User;
+import ticket.booking.entities.WaitlistEntry;
+import ticket.booking.repository.JsonUnitOfWork;
+import ticket.booking.repository.StorageConfig;
+import ticket.booking.repository.TicketRepository;
+import ticket.booking.repository.UnitOfWork;
+import ticket.booking.repository.UserRepository;
 import ticket.booking.util.UserServiceUtil;
 
-import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.OptionalInt;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.IntStream;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class UserBookingService {
 
-    private static final String USERS_PATH = "app/src/main/java/ticket/booking/localDB/users.json";
-
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UserRepository userRepository;
+    private final TicketRepository ticketRepository;
+    private final TrainService trainService;
+    private final WaitlistService waitlistService;
+    private final UnitOfWork unitOfWork;
+    private final List<BookingEventListener> bookingListeners = new CopyOnWriteArrayList<>();
+    private final Object analyticsLock = new Object();
+    private volatile BookingAnalytics analytics;
     private List<User> usersList;
+    // Position of each user in usersList, by lower-cased user ID
+    private final Map<String, Integer> userPositions = new HashMap<>();
     private User user;
 
     /**
@@ -30,17 +48,65 @@ public class UserBookingService {
      * @throws IOException if user data fails to load
      */
     public UserBookingService(User user) throws IOException {
+        this();
         this.user = user;
-        loadUserList();
     }
 
     /**
-     * Default constructor that loads user data from local storage.
+     * Default constructor that loads user data from the configured storage backend.
      *
      * @throws IOException if user data fails to load
      */
     public UserBookingService() throws IOException {
+        this(StorageConfig.load());
+    }
+
+    /**
+     * Constructs a UserBookingService on the repositories of the given storage configuration.
+     *
+     * @param storageConfig the storage backend to use
+     * @throws IOException if user or train data fails to load
+     */
+    public UserBookingService(StorageConfig storageConfig) throws IOException {
+        this(storageConfig.userRepository(), storageConfig.ticketRepository(),
+                new WaitlistService(storageConfig.waitlistRepository()), new TrainService(storageConfig.trainRepository()),
+                storageConfig.unitOfWork());
+    }
+
+    /**
+     * Constructs a UserBookingService on the given storage and services. Writes that belong
+     * together are applied one at a time, as with the JSON backend.
+     *
+     * @param userRepository   the storage to load users from and save them to
+     * @param ticketRepository the storage to look up booked tickets in
+     * @param waitlistService  the waitlists to promote users from
+     * @param trainService     the train service used for search and seat booking
+     * @throws IOException if user data fails to load
+     */
+    public UserBookingService(UserRepository userRepository, TicketRepository ticketRepository,
+                              WaitlistService waitlistService, TrainService trainService) throws IOException {
+        this(userRepository, ticketRepository, waitlistService, trainService, new JsonUnitOfWork());
+    }
+
+    /**
+     * Constructs a UserBookingService on the given storage and services.
+     *
+     * @param userRepository   the storage to load users from and save them to
+     * @param ticketRepository the storage to look up booked tickets in
+     * @param waitlistService  the waitlists to promote users from
+     * @param trainService     the train service used for search and seat booking
+     * @param unitOfWork       groups the writes of a cancellation
+     * @throws IOException if user data fails to load
+     */
+    public UserBookingService(UserRepository userRepository, TicketRepository ticketRepository,
+                              WaitlistService waitlistService, TrainService trainService, UnitOfWork unitOfWork) throws IOException {
+        this.userRepository = userRepository;
+        this.ticketRepository = ticketRepository;
+        this.waitlistService = waitlistService;
+        this.trainService = trainService;
+        this.unitOfWork = unitOfWork;
         loadUserList();
+        removePromotedWaitlistEntries();
     }
 
     /**
@@ -50,6 +116,64 @@ public class UserBookingService {
         return this.user;
     }
 
+    /**
+     * Returns the train service this booking service searches and books through.
+     */
+    public TrainService getTrainService() {
+        return trainService;
+    }
+
+    /**
+     * Registers a listener to be notified of every booking and cancellation.
+     *
+     * @param listener the listener to add
+     */
+    public void addBookingListener(BookingEventListener listener) {
+        bookingListeners.add(listener);
+    }
+
+    /**
+     * Returns occupancy analytics over all stored bookings. The aggregates are built on
+     * first use and then kept current from booking events. Only copying the booked tickets
+     * and registering the listener hold the booking lock; the tickets are aggregated after
+     * it is released, while bookings go on and are counted from their events.
+     *
+     * @return the booking analytics
+     */
+    public BookingAnalytics getAnalytics() {
+        BookingAnalytics current = analytics;
+        if (current != null) {
+            return current;
+        }
+
+        synchronized (analyticsLock) {
+            if (analytics == null) {
+                BookingAnalytics built = new BookingAnalytics();
+                built.addAll(listenFromCurrentBookings(built));
+                analytics = built;
+            }
+            return analytics;
+        }
+    }
+
+    /**
+     * Registers a listener and returns the tickets booked before it, as one step with
+     * respect to bookings and cancellations, which hold the same lock.
+     *
+     * @param listener the listener to add
+     * @return the tickets booked when the listener was added
+     */
+    private synchronized List<Ticket> listenFromCurrentBookings(BookingEventListener listener) {
+        List<Ticket> booked = new ArrayList<>();
+        for (User stored : usersList) {
+            if (stored.getTicketsBooked() != null) {
+                booked.addAll(stored.getTicketsBooked());
+            }
+        }
+        addBookingListener(listener);
+        return booked;
+    }
+
     /**
      * Registers a new user and saves the data.
      *
@@ -57,17 +181,47 @@ public class UserBookingService {
      * @return true if successful, false otherwise
      * @throws IOException if saving fails
      */
-    public boolean signUp(User user) throws IOException {
+    public synchronized boolean signUp(User user) throws IOException {
         try {
             this.user = user;
-            usersList.add(user);
-            saveUserList();
+            addToList(user);
+            userRepository.save(user);
             return true;
         } catch (IOException e) {
             return false;
         }
     }
 
+    /**
+     * Adds many users at once, skipping any whose user ID is already stored,
+     * and saves the data a single time.
+     *
+     * @param users the users to add
+     * @return the number of users added
+     * @throws IOException if saving fails
+     */
+    public synchronized int addUsers(Collection<User> users) throws IOException {
+        List<User> added = new ArrayList<>();
+        for (User newUser : users) {
+            if (!userPositions.containsKey(idKey(newUser.getUserId()))) {
+                addToList(newUser);
+                added.add(newUser);
+            }
+        }
+
+        if (!added.isEmpty()) {
+            userRepository.saveAll(added);
+        }
+        return added.size();
+    }
+
+    /**
+     * Returns a read-only view of all stored users.
+     */
+    public List<User> getUsers() {
+        return Collections.unmodifiableList(usersList);
+    }
+
     /**
      * Authenticates a user using username and password.
      *
@@ -101,18 +255,49 @@ public class UserBookingService {
     }
 
     /**
-     * Searches for available trains between source and destination.
+     * Searches for available trains between source and destination. Partial or
+     * misspelled station names are resolved to the closest known station.
      *
      * @param source      the departure station
      * @param destination the arrival station
      * @return list of matching trains
      */
     public List<Train> searchTrains(String source, String destination) {
-        try {
-            return new TrainService().searchTrains(source, destination);
-        } catch (IOException e) {
-            throw new RuntimeException("Error searching trains", e);
-        }
+        return trainService.searchTrains(source, destination);
+    }
+
+    /**
+     * Searches for trains between source and destination together with their free seats.
+     *
+     * @param source        the departure station
+     * @param destination   the arrival station
+     * @param minFreeSeats  the minimum number of free seats, 0 to keep every train
+     * @param mostFreeFirst true to sort by free seats, most first
+     * @return list of matching trains with their availability
+     */
+    public List<TrainAvailability> searchAvailableTrains(String source, String destination, int minFreeSeats, boolean mostFreeFirst) {
+        return trainService.searchAvailableTrains(source, destination, minFreeSeats, mostFreeFirst);
+    }
+
+    /**
+     * Suggests canonical station names for a partially typed or misspelled station.
+     *
+     * @param input the station name as typed so far
+     * @param limit the maximum number of suggestions
+     * @return list of station names
+     */
+    public List<String> suggestStations(String input, int limit) {
+        return trainService.suggestStations(input, limit);
+    }
+
+    /**
+     * Resolves a partial or misspelled station name to a canonical station.
+     *
+     * @param input the station name as typed
+     * @return the canonical station name, or null if it cannot be resolved
+     */
+    public String resolveStation(String input) {
+        return trainService.resolveStation(input);
     }
 
     /**
@@ -122,15 +307,26 @@ public class UserBookingService {
      * @return the Train object if found
      */
     public Train findTrain(String trainNumber) {
-        try {
-            return new TrainService().trainExist(trainNumber);
-        } catch (IOException e) {
-            throw new RuntimeException("Train lookup failed", e);
-        }
+        return trainService.trainExist(trainNumber);
     }
 
     /**
-     * Books a ticket for the specified user and train if the seat is available.
+     * Checks whether a train runs from source to destination, in that order. Station names
+     * are resolved against the train's own route.
+     *
+     * @param train       train object
+     * @param source      journey start point
+     * @param destination journey end point
+     * @return true if the train serves both stations in that order
+     */
+    public boolean runsBetween(Train train, String source, String destination) {
+        return trainService.runsBetween(train, source, destination);
+    }
+
+    /**
+     * Books a ticket for the specified user and train if the train runs between the given
+     * stations and the seat is available. Partial or misspelled station names are resolved
+     * against the train's route and stored as the matching station.
      *
      * @param userId      the user ID
      * @param source      journey start point
@@ -141,20 +337,24 @@ public class UserBookingService {
      * @param seat        seat column
      * @return true if booking is successful, false otherwise
      */
-    public boolean bookTrainTicket(String userId, String source, String destination, String travelDate, Train train, int row, int seat) {
+    public synchronized boolean bookTrainTicket(String userId, String source, String destination, String travelDate, Train train, int row, int seat) {
+        if (!trainService.runsBetween(train, source, destination)) {
+            return false;
+        }
+
         try {
-            if (!isSeatValidAndAvailable(train, row, seat)) {
+            // Mark seat as booked on the latest catalog version of the train
+            Train bookedTrain = trainService.bookSeat(train.getTrainId(), row, seat);
+            if (bookedTrain == null) {
                 return false;
             }
 
-            // Mark seat as booked
-            train.getSeats().get(row).set(seat, 1);
-            new TrainService().updateTrain(train);
-
             // Generate ticket and assign to user
-            Ticket ticket = new Ticket(UUID.randomUUID().toString(), userId, source, destination, travelDate, train);
+            Ticket ticket = new Ticket(UUID.randomUUID().toString(), userId, trainService.resolveStationOnRoute(train, source),
+                    trainService.resolveStationOnRoute(train, destination), travelDate, bookedTrain, row, seat);
             this.user.getTicketsBooked().add(ticket);
             updateUser(this.user);
+            bookingListeners.forEach(listener -> listener.onTicketBooked(ticket));
 
             return true;
         } catch (IOException e) {
@@ -163,13 +363,12 @@ public class UserBookingService {
     }
 
     /**
-     * Checks whether a given seat is within valid bounds and available.
+     * Returns the name of a station on the train's route, or the input as typed if it cannot
+     * be resolved there.
      */
-    private boolean isSeatValidAndAvailable(Train train, int row, int seat) {
-        List<List<Integer>> seats = train.getSeats();
-        return row >= 0 && row < seats.size()
-                && seat >= 0 && seat < seats.get(row).size()
-                && seats.get(row).get(seat) == 0;
+    private String resolveOrKeep(Train train, String station) {
+        String resolved = trainService.resolveStationOnRoute(train, station);
+        return resolved != null ? resolved : station;
     }
 
     /**
@@ -179,55 +378,304 @@ public class UserBookingService {
      * @throws IOException if saving fails
      */
     private void updateUser(User user) throws IOException {
-        OptionalInt index = IntStream.range(0, usersList.size())
-                .filter(i -> usersList.get(i).getUserId().equalsIgnoreCase(user.getUserId()))
-                .findFirst();
+        updateUsers(Collections.singletonList(user));
+    }
 
-        if (index.isPresent()) {
-            usersList.set(index.getAsInt(), user);
-            saveUserList();
+    /**
+     * Updates several users in the stored list and persists them as one unit of work.
+     * Users that are not stored are ignored.
+     *
+     * @param users the updated users
+     * @throws IOException if saving fails
+     */
+    private void updateUsers(Collection<User> users) throws IOException {
+        List<User> stored = new ArrayList<>();
+        for (User updated : users) {
+            Integer position = userPositions.get(idKey(updated.getUserId()));
+            if (position != null) {
+                usersList.set(position, updated);
+                stored.add(updated);
+            }
+        }
+
+        if (!stored.isEmpty()) {
+            userRepository.saveAll(stored);
         }
     }
 
     /**
-     * Cancels a booked ticket by ticket ID.
+     * Cancels a booked ticket by ticket ID. The freed seat goes to the next waitlisted
+     * user of the same train and date, or back into inventory if nobody is waiting.
      *
      * @param ticketId the ID of the ticket to be cancelled
      * @return true if ticket was found and removed, false otherwise
      * @throws IOException if saving user list fails
      */
     public boolean cancelTicket(String ticketId) throws IOException {
-        OptionalInt index = IntStream.range(0, user.getTicketsBooked().size())
-                .filter(i -> user.getTicketsBooked().get(i).getTicketId().equals(ticketId)).findFirst();
-
-        if (index.isPresent()) {
-            List<Ticket> tickets = user.getTicketsBooked();
-            tickets.remove(index.getAsInt());
-            user.setTicketsBooked(tickets);
-            updateUser(user);
-            return true;
-        } else {
-            return false;
+        return cancelTickets(Collections.singletonList(ticketId)) > 0;
+    }
+
+    /**
+     * Cancels several of the current user's tickets at once. All freed seats are promoted
+     * to waitlisted users or released in one pass, and the data is saved once.
+     *
+     * @param ticketIds the IDs of the tickets to be cancelled
+     * @return the number of tickets that were found and removed
+     * @throws IOException if saving user list fails
+     */
+    public synchronized int cancelTickets(Collection<String> ticketIds) throws IOException {
+        Map<String, Set<String>> ticketIdsByUser = new HashMap<>();
+        ticketIdsByUser.put(user.getUserId(), new HashSet<>(ticketIds));
+        return cancel(ticketIdsByUser);
+    }
+
+    /**
+     * Cancels every booking on a train for a travel date, across all users, for example when
+     * a group booking or a block of seats is released. The freed seats are promoted to the
+     * train's waitlist for that date in one batch, and the rest are released.
+     *
+     * @param train      train object
+     * @param travelDate date of travel
+     * @return the number of tickets cancelled
+     * @throws IOException if the bookings cannot be looked up or saved
+     */
+    public synchronized int cancelAllBookings(Train train, String travelDate) throws IOException {
+        Map<String, Set<String>> ticketIdsByUser = new HashMap<>();
+        for (Ticket ticket : ticketRepository.findByTrainAndDate(train.getTrainId(), travelDate)) {
+            ticketIdsByUser.computeIfAbsent(ticket.getUserId(), id -> new HashSet<>()).add(ticket.getTicketId());
         }
+        return cancel(ticketIdsByUser);
     }
 
     /**
-     * Loads user data from local storage (JSON file).
+     * Adds the current user to the waitlist of a train on a given date. The user is booked
+     * automatically as soon as a seat on that train and date is cancelled. Station names
+     * are resolved against the train's route, and kept as typed if they are not on it.
      *
-     * @throws IOException if file reading or parsing fails
+     * @param source        journey start point
+     * @param destination   journey end point
+     * @param travelDate    date of travel
+     * @param train         train object
+     * @param priorityClass priority class, lower classes are promoted first
+     * @return the created waitlist entry
+     * @throws IOException if the entry cannot be stored
      */
-    private void loadUserList() throws IOException {
-        File users = new File(USERS_PATH);
-        usersList = objectMapper.readValue(users, new TypeReference<List<User>>() {});
+    public WaitlistEntry joinWaitlist(String source, String destination, String travelDate, Train train, int priorityClass) throws IOException {
+        return waitlistService.enqueue(user.getUserId(), train.getTrainId(), resolveOrKeep(train, source),
+                resolveOrKeep(train, destination), travelDate, priorityClass);
     }
 
     /**
-     * Saves user data to local storage (JSON file).
+     * Returns the users waiting for a train on a given date, in promotion order.
      *
-     * @throws IOException if writing to file fails
+     * @param train      train object
+     * @param travelDate date of travel
+     * @return list of waitlist entries
      */
-    private void saveUserList() throws IOException {
-        File users = new File(USERS_PATH);
-        objectMapper.writeValue(users, usersList);
+    public List<WaitlistEntry> getWaitlist(Train train, String travelDate) {
+        return waitlistService.getWaitlist(train.getTrainId(), travelDate);
+    }
+
+    /**
+     * Removes the given tickets from their holders and hands each freed seat to the next
+     * waitlisted user of the same train and date.
+     * <p>
+     * Saving the users, removing the promoted waitlist entries and releasing the unclaimed
+     * seats run as one {@link UnitOfWork}. On an atomic backend a failure in any of them
+     * leaves tickets, waitlists and seat inventory as they were, and is reported. Otherwise
+     * the cancellation is final once the users are saved: a later failure is not reported,
+     * promoted entries left in storage are dropped on the next load because their tickets
+     * record them, and seats whose release could not be saved stay booked.
+     *
+     * @param ticketIdsByUser the IDs of the tickets to cancel, by holder's user ID
+     * @return the number of tickets cancelled
+     * @throws IOException if saving fails
+     */
+    private int cancel(Map<String, Set<String>> ticketIdsByUser) throws IOException {
+        // Ticket lists as they were before this cancellation, to roll back to if saving fails
+        Map<User, List<Ticket>> previousTickets = new LinkedHashMap<>();
+        List<Ticket> cancelled = new ArrayList<>();
+
+        ticketIdsByUser.forEach((userId, ids) -> {
+            User holder = findUser(userId);
+            if (holder == null || holder.getTicketsBooked() == null) {
+                return;
+            }
+            previousTickets.put(holder, new ArrayList<>(holder.getTicketsBooked()));
+
+            Iterator<Ticket> tickets = holder.getTicketsBooked().iterator();
+            while (tickets.hasNext()) {
+                Ticket ticket = tickets.next();
+                if (ids.contains(ticket.getTicketId())) {
+                    cancelled.add(ticket);
+                    tickets.remove();
+                }
+            }
+        });
+
+        if (cancelled.isEmpty()) {
+            return 0;
+        }
+
+        List<WaitlistEntry> polled = new ArrayList<>();
+        List<Ticket> promoted = new ArrayList<>();
+        Map<String, List<Ticket>> seatsToRelease = new LinkedHashMap<>();
+
+        // A seat is freed at most once, and only if the catalog actually has it booked; a ticket
+        // whose seat is already free (or was freed by another ticket in this batch) frees nothing
+        Set<String> freedSeats = new HashSet<>();
+        for (Ticket ticket : cancelled) {
+            if (!ticket.hasSeat() || ticket.getTrain() == null) {
+                continue;
+            }
+            String trainId = ticket.getTrain().getTrainId();
+            if (!trainService.isSeatBooked(trainId, ticket.getRow(), ticket.getSeat())
+                    || !freedSeats.add(trainId.toLowerCase() + "|" + ticket.getRow() + "|" + ticket.getSeat())) {
+                continue;
+            }
+
+            Ticket promotedTicket = promoteNext(ticket, previousTickets, polled);
+            if (promotedTicket != null) {
+                promoted.add(promotedTicket);
+            } else {
+                seatsToRelease.computeIfAbsent(ticket.getTrain().getTrainId(), id -> new ArrayList<>()).add(ticket);
+            }
+        }
+
+        try {
+            unitOfWork.run(() -> {
+                updateUsers(previousTickets.keySet());
+                if (unitOfWork.isAtomic()) {
+                    waitlistService.confirm(polled);
+                    trainService.releaseSeats(seatsToRelease);
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            previousTickets.forEach(User::setTicketsBooked);
+            waitlistService.restore(polled);
+            throw e;
+        }
+
+        if (!unitOfWork.isAtomic()) {
+            completeSavedCancellation(polled, seatsToRelease);
+        }
+
+        for (BookingEventListener listener : bookingListeners) {
+            cancelled.forEach(listener::onTicketCancelled);
+            promoted.forEach(listener::onTicketBooked);
+        }
+        return cancelled.size();
+    }
+
+    /**
+     * Finishes a cancellation whose users are already saved on a backend without transactions.
+     * The cancellation stands whatever happens here, so failures are not reported.
+     */
+    private void completeSavedCancellation(List<WaitlistEntry> polled, Map<String, List<Ticket>> seatsToRelease) {
+        try {
+            waitlistService.confirm(polled);
+        } catch (IOException e) {
+            // The promoted tickets record their entries, which are dropped on the next load
+        }
+        try {
+            trainService.releaseSeats(seatsToRelease);
+        } catch (IOException e) {
+            // The catalog is only updated after a successful save, so the seats stay booked
+        }
+    }
+
+    /**
+     * Removes waitlist entries that stored tickets show were already promoted.
+     */
+    private void removePromotedWaitlistEntries() throws IOException {
+        Set<String> promotedEntryIds = new HashSet<>();
+        for (User stored : usersList) {
+            if (stored.getTicketsBooked() != null) {
+                for (Ticket ticket : stored.getTicketsBooked()) {
+                    if (ticket.getWaitlistEntryId() != null) {
+                        promotedEntryIds.add(ticket.getWaitlistEntryId());
+                    }
+                }
+            }
+        }
+        waitlistService.removePromoted(promotedEntryIds);
+    }
+
+    /**
+     * Books the seat of a cancelled ticket for the next waitlisted user. Entries whose user
+     * no longer exists are skipped and dropped along with the promoted one.
+     *
+     * @param cancelled       the cancelled ticket whose seat is free
+     * @param previousTickets ticket lists to restore on failure, extended with the promoted user
+     * @param polled          receives every entry taken off the waitlist
+     * @return the ticket booked for the promoted user, or null if nobody is waiting
+     */
+    private Ticket promoteNext(Ticket cancelled, Map<User, List<Ticket>> previousTickets, List<WaitlistEntry> polled) {
+        String trainId = cancelled.getTrain().getTrainId();
+        WaitlistEntry entry;
+
+        while ((entry = waitlistService.poll(trainId, cancelled.getTravelDate())) != null) {
+            polled.add(entry);
+            User waitingUser = findUser(entry.getUserId());
+            if (waitingUser == null) {
+                continue;
+            }
+
+            if (waitingUser.getTicketsBooked() == null) {
+                waitingUser.setTicketsBooked(new ArrayList<>());
+            }
+            previousTickets.putIfAbsent(waitingUser, new ArrayList<>(waitingUser.getTicketsBooked()));
+
+            Train train = trainService.getCatalog().findById(trainId);
+            Ticket ticket = new Ticket(UUID.randomUUID().toString(), entry.getUserId(), entry.getSource(), entry.getDestination(),
+                    entry.getTravelDate(), train, cancelled.getRow(), cancelled.getSeat());
+            ticket.setWaitlistEntryId(entry.getEntryId());
+            waitingUser.getTicketsBooked().add(ticket);
+            return ticket;
+        }
+
+        return null;
+    }
+
+    /**
+     * Looks up a stored user by ID, ignoring case. The logged-in user is returned as is.
+     *
+     * @param userId the user ID
+     * @return the user if found, else null
+     */
+    private User findUser(String userId) {
+        if (user != null && user.getUserId().equalsIgnoreCase(userId)) {
+            return user;
+        }
+        Integer position = userPositions.get(idKey(userId));
+        return position == null ? null : usersList.get(position);
+    }
+
+    /**
+     * Appends a user to the stored list and indexes its position. A user whose ID is
+     * already indexed keeps pointing at the first entry.
+     *
+     * @param newUser the user to append
+     */
+    private void addToList(User newUser) {
+        usersList.add(newUser);
+        userPositions.putIfAbsent(idKey(newUser.getUserId()), usersList.size() - 1);
+    }
+
+    private static String idKey(String userId) {
+        return userId.toLowerCase();
+    }
+
+    /**
+     * Loads user data from the storage backend and indexes it by user ID.
+     *
+     * @throws IOException if reading or parsing fails
+     */
+    private void loadUserList() throws IOException {
+        usersList = new ArrayList<>(userRepository.findAll());
+        userPositions.clear();
+        for (int i = 0; i < usersList.size(); i++) {
+            userPositions.putIfAbsent(idKey(usersList.get(i).getUserId()), i);
+        }
     }
 }
@@ -0,0 +1,189 @@
+package ticket.booking.services;
+
+import ticket.booking.entities.WaitlistEntry;
+import ticket.booking.repository.WaitlistRepository;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps one waitlist per train and travel date. Each waitlist is a priority queue
+ * ordered by priority class and, within a class, by the order in which users joined.
+ * <p>
+ * Entries are persisted through a {@link WaitlistRepository} and loaded on startup.
+ * {@link #poll} only removes an entry from memory; the caller either makes the removal
+ * durable with {@link #confirm} once the promoted booking is saved, or puts the entry
+ * back with {@link #restore} if saving fails.
+ */
+public class WaitlistService {
+
+    private static final Comparator<WaitlistEntry> PROMOTION_ORDER =
+            Comparator.comparingInt(WaitlistEntry::getPriorityClass)
+                    .thenComparingLong(WaitlistEntry::getSequence);
+
+    private final WaitlistRepository waitlistRepository;
+    private final Map<String, PriorityQueue<WaitlistEntry>> waitlists = new HashMap<>();
+    private long nextSequence;
+
+    /**
+     * Creates the service and loads the stored waitlist entries.
+     *
+     * @param waitlistRepository the storage for waitlist entries
+     * @throws IOException if the entries cannot be loaded
+     */
+    public WaitlistService(WaitlistRepository waitlistRepository) throws IOException {
+        this.waitlistRepository = waitlistRepository;
+        for (WaitlistEntry entry : waitlistRepository.findAll()) {
+            queueFor(entry).add(entry);
+            nextSequence = Math.max(nextSequence, entry.getSequence() + 1);
+        }
+    }
+
+    /**
+     * Adds a user to the waitlist of a train on a given date and stores the entry.
+     *
+     * @param userId        the user ID
+     * @param trainId       the train ID
+     * @param source        journey start point
+     * @param destination   journey end point
+     * @param travelDate    date of travel
+     * @param priorityClass priority class, lower classes are promoted first
+     * @return the created waitlist entry
+     * @throws IOException if the entry cannot be stored
+     */
+    public synchronized WaitlistEntry enqueue(String userId, String trainId, String source, String destination, String travelDate, int priorityClass) throws IOException {
+        WaitlistEntry entry = new WaitlistEntry(UUID.randomUUID().toString(), userId, trainId, source, destination,
+                travelDate, priorityClass, nextSequence);
+        waitlistRepository.save(entry);
+        nextSequence++;
+        queueFor(entry).add(entry);
+        return entry;
+    }
+
+    /**
+     * Removes and returns the next entry to promote for a train on a given date. The entry
+     * stays in storage until it is passed to {@link #confirm}.
+     *
+     * @param trainId    the train ID
+     * @param travelDate date of travel
+     * @return the next waitlist entry, or null if nobody is waiting
+     */
+    public synchronized WaitlistEntry poll(String trainId, String travelDate) {
+        String key = key(trainId, travelDate);
+        PriorityQueue<WaitlistEntry> queue = waitlists.get(key);
+        if (queue == null) {
+            return null;
+        }
+
+        WaitlistEntry next = queue.poll();
+        if (queue.isEmpty()) {
+            waitlists.remove(key);
+        }
+        return next;
+    }
+
+    /**
+     * Removes polled entries from storage once their promotion has been saved.
+     *
+     * @param entries the polled entries
+     * @throws IOException if the entries cannot be removed from storage
+     */
+    public synchronized void confirm(Collection<WaitlistEntry> entries) throws IOException {
+        if (!entries.isEmpty()) {
+            waitlistRepository.deleteAll(entries);
+        }
+    }
+
+    /**
+     * Removes entries that were already promoted, for example when a promotion was saved but
+     * removing its entry from storage failed. Promoted tickets record the ID of their entry.
+     *
+     * @param entryIds the IDs of promoted entries
+     * @return the number of entries removed
+     * @throws IOException if the entries cannot be removed from storage
+     */
+    public synchronized int removePromoted(Set<String> entryIds) throws IOException {
+        if (entryIds.isEmpty()) {
+            return 0;
+        }
+
+        List<WaitlistEntry> promoted = new ArrayList<>();
+        for (PriorityQueue<WaitlistEntry> queue : waitlists.values()) {
+            for (WaitlistEntry entry : queue) {
+                if (entryIds.contains(entry.getEntryId())) {
+                    promoted.add(entry);
+                }
+            }
+        }
+
+        for (WaitlistEntry entry : promoted) {
+            queueFor(entry).remove(entry);
+        }
+        waitlists.values().removeIf(PriorityQueue::isEmpty);
+        if (!promoted.isEmpty()) {
+            waitlistRepository.deleteAll(promoted);
+        }
+        return promoted.size();
+    }
+
+    /**
+     * Puts polled entries back on their waitlists, keeping their original place in line.
+     *
+     * @param entries the polled entries
+     */
+    public synchronized void restore(Collection<WaitlistEntry> entries) {
+        for (WaitlistEntry entry : entries) {
+            queueFor(entry).add(entry);
+        }
+    }
+
+    /**
+     * Removes an entry from its waitlist, for example when the user no longer wants the seat.
+     *
+     * @param entry the entry to remove
+     * @return true if the entry was waiting, false otherwise
+     * @throws IOException if the entry cannot be removed from storage
+     */
+    public synchronized boolean remove(WaitlistEntry entry) throws IOException {
+        PriorityQueue<WaitlistEntry> queue = waitlists.get(key(entry.getTrainId(), entry.getTravelDate()));
+        if (queue == null || !queue.remove(entry)) {
+            return false;
+        }
+        waitlistRepository.deleteAll(List.of(entry));
+        return true;
+    }
+
+    /**
+     * Returns the entries waiting for a train on a given date, in promotion order.
+     *
+     * @param trainId    the train ID
+     * @param travelDate date of travel
+     * @return list of waiting entries, first to be promoted first
+     */
+    public synchronized List<WaitlistEntry> getWaitlist(String trainId, String travelDate) {
+        PriorityQueue<WaitlistEntry> queue = waitlists.get(key(trainId, travelDate));
+        if (queue == null) {
+            return new ArrayList<>();
+        }
+
+        List<WaitlistEntry> entries = new ArrayList<>(queue);
+        entries.sort(PROMOTION_ORDER);
+        return entries;
+    }
+
+    private PriorityQueue<WaitlistEntry> queueFor(WaitlistEntry entry) {
+        return waitlists.computeIfAbsent(key(entry.getTrainId(), entry.getTravelDate()), k -> new PriorityQueue<>(PROMOTION_ORDER));
+    }
+
+    private static String key(String trainId, String travelDate) {
+        return trainId.toLowerCase() + "|" + travelDate;
+    }
+}
@@ -0,0 +1,97 @@
+package ticket.booking.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ticket.booking.entities.Train;
+import ticket.booking.entities.User;
+import ticket.booking.services.UserBookingService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Compares the JSON and H2 storage backends under booking load: users sign up, book
+ * seats one at a time and cancel half of them, each step persisted as in the CLI.
+ * Run with {@code ./gradlew storageBenchmark}.
+ */
+public class StorageBenchmark {
+
+    private static final int USERS = 200;
+    private static final int BOOKINGS_PER_USER = 5;
+    private static final int ROWS = 40;
+    private static final int SEATS_PER_ROW = 25;
+
+    public static void main(String[] args) throws IOException {
+        for (String backend : new String[]{"json", "h2"}) {
+            Path dir = Files.createTempDirectory("trainmate-bench-" + backend);
+            long nanos = run(configFor(backend, dir));
+            int operations = USERS * (1 + BOOKINGS_PER_USER + BOOKINGS_PER_USER / 2);
+            System.out.printf("%-4s %,d operations in %,d ms (%,.0f ops/s)%n",
+                    backend, operations, nanos / 1_000_000, operations / (nanos / 1e9));
+        }
+    }
+
+    private static StorageConfig configFor(String backend, Path dir) throws IOException {
+        Path trains = dir.resolve("trains.json");
+        Path users = dir.resolve("users.json");
+        new ObjectMapper().writeValue(trains.toFile(), Collections.singletonList(benchmarkTrain()));
+        Files.writeString(users, "[]");
+
+        Properties properties = new Properties();
+        properties.setProperty(StorageConfig.BACKEND, backend);
+        properties.setProperty(StorageConfig.TRAINS_PATH, trains.toString());
+        properties.setProperty(StorageConfig.USERS_PATH, users.toString());
+        properties.setProperty(StorageConfig.WAITLIST_PATH, dir.resolve("waitlist.json").toString());
+        properties.setProperty(StorageConfig.H2_URL, "jdbc:h2:" + dir.resolve("bench").toAbsolutePath());
+
+        StorageConfig config = new StorageConfig(properties);
+        if (backend.equals("h2")) {
+            config.trainRepository().save(benchmarkTrain());
+        }
+        return config;
+    }
+
+    private static long run(StorageConfig config) throws IOException {
+        UserBookingService service = new UserBookingService(config);
+        Train train = service.findTrain("99999");
+        long start = System.nanoTime();
+        int seat = 0;
+
+        for (int u = 0; u < USERS; u++) {
+            String userId = UUID.randomUUID().toString();
+            service.signUp(new User("user" + u, "secret", "hash", new ArrayList<>(), userId));
+
+            for (int b = 0; b < BOOKINGS_PER_USER; b++, seat++) {
+                service.bookTrainTicket(userId, "alpha", "gamma", "01-01-2026", train,
+                        (seat / SEATS_PER_ROW) % ROWS, seat % SEATS_PER_ROW);
+            }
+
+            List<String> ticketIds = new ArrayList<>();
+            service.getCurrentUser().getTicketsBooked().forEach(ticket -> ticketIds.add(ticket.getTicketId()));
+            for (String ticketId : ticketIds.subList(0, BOOKINGS_PER_USER / 2)) {
+                service.cancelTicket(ticketId);
+            }
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    private static Train benchmarkTrain() {
+        List<List<Integer>> seats = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            seats.add(new ArrayList<>(Collections.nCopies(SEATS_PER_ROW, 0)));
+        }
+        LinkedHashMap<String, String> times = new LinkedHashMap<>();
+        times.put("alpha", "08:00:00");
+        times.put("beta", "10:00:00");
+        times.put("gamma", "12:00:00");
+        return new Train("Benchmark Express", "99999", seats, times, Arrays.asList("alpha", "beta", "gamma"));
+    }
+}
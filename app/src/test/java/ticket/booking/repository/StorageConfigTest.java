@@ -0,0 +1,120 @@
+package ticket.booking.repository;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ticket.booking.entities.Train;
+import ticket.booking.entities.User;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class StorageConfigTest {
+
+    private TestStorage storage;
+
+    @Before
+    public void setUp() throws IOException {
+        storage = TestStorage.create("storage-config-test");
+        List<List<Integer>> seats = new ArrayList<>();
+        seats.add(new ArrayList<>(Arrays.asList(0, 1)));
+        storage.writeTrains(Collections.singletonList(new Train("Bengaluru to Delhi", "12345", seats,
+                new LinkedHashMap<>(), new ArrayList<>(Arrays.asList("bengaluru", "delhi")))));
+        new JsonUserRepository(storage.path("users.json").toString())
+                .save(new User("asha", "secret", "hash", new ArrayList<>(), "asha-id"));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        storage.delete();
+    }
+
+    @Test public void systemPropertiesOverrideTheClasspathDefaults() throws IOException {
+        assertEquals("json", StorageConfig.load().getBackend());
+
+        System.setProperty(StorageConfig.BACKEND, "H2");
+        try {
+            assertEquals("h2", StorageConfig.load().getBackend());
+        } finally {
+            System.clearProperty(StorageConfig.BACKEND);
+        }
+
+        System.setProperty(StorageConfig.USERS_PATH, storage.path("users.json").toString());
+        try {
+            assertEquals("asha", StorageConfig.load().userRepository().findAll().get(0).getName());
+        } finally {
+            System.clearProperty(StorageConfig.USERS_PATH);
+        }
+    }
+
+    @Test public void missingSettingIsReportedByName() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(StorageConfig.BACKEND, "json");
+        properties.setProperty(StorageConfig.USERS_PATH, " ");
+        StorageConfig config = new StorageConfig(properties);
+
+        assertIllegalArgument("Missing storage setting " + StorageConfig.TRAINS_PATH, config::trainRepository);
+        assertIllegalArgument("Missing storage setting " + StorageConfig.USERS_PATH, config::userRepository);
+        assertIllegalArgument("Missing storage setting " + StorageConfig.BACKEND, new StorageConfig(new Properties())::getBackend);
+    }
+
+    @Test public void unknownBackendIsRejected() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(StorageConfig.BACKEND, "mongo");
+
+        assertIllegalArgument("Unknown storage backend: mongo", new StorageConfig(properties)::waitlistRepository);
+    }
+
+    @Test public void newH2DatabaseImportsTheJsonData() throws IOException {
+        StorageConfig config = storage.h2();
+
+        assertEquals(1, config.trainRepository().findAll().size());
+        assertEquals("asha", config.userRepository().findAll().get(0).getName());
+    }
+
+    @Test public void jsonDataIsImportedOnlyIntoAnEmptyDatabase() throws IOException {
+        storage.h2().userRepository().save(new User("ravi", "secret", "hash", new ArrayList<>(), "ravi-id"));
+
+        // The JSON files still hold only asha; reopening must not import them again over the database
+        List<User> users = storage.h2().userRepository().findAll();
+        assertEquals(2, users.size());
+    }
+
+    @Test public void failedImportLeavesTheDatabaseEmptyAndIsRetried() throws IOException {
+        String users = Files.readString(storage.path("users.json"));
+        // A user without a name violates the users table constraints after the trains were written
+        Files.writeString(storage.path("users.json"), "[{\"user_id\":\"nameless\"}]");
+        try {
+            storage.h2().trainRepository();
+            fail("expected the import to fail");
+        } catch (IOException expected) {
+            // nothing must have been imported
+        }
+
+        Files.writeString(storage.path("users.json"), users);
+        StorageConfig config = storage.h2();
+        assertEquals(1, config.trainRepository().findAll().size());
+        assertEquals(1, config.userRepository().findAll().size());
+    }
+
+    private interface Action {
+        void run() throws IOException;
+    }
+
+    private static void assertIllegalArgument(String message, Action action) throws IOException {
+        try {
+            action.run();
+            fail("expected IllegalArgumentException: " + message);
+        } catch (IllegalArgumentException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+}
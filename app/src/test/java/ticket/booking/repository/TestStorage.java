@@ -0,0 +1,95 @@
+package ticket.booking.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ticket.booking.entities.Train;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * Temporary storage directory for tests, with empty train and user files and
+ * {@link StorageConfig}s pointing at it. Call {@link #delete()} when done.
+ */
+public final class TestStorage {
+
+    private final Path dir;
+
+    private TestStorage(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Creates a temporary directory holding empty trains.json and users.json files.
+     *
+     * @param prefix the directory name prefix
+     * @return the new storage
+     * @throws IOException if the directory or files cannot be created
+     */
+    public static TestStorage create(String prefix) throws IOException {
+        TestStorage storage = new TestStorage(Files.createTempDirectory(prefix));
+        Files.writeString(storage.path("trains.json"), "[]");
+        Files.writeString(storage.path("users.json"), "[]");
+        return storage;
+    }
+
+    /**
+     * Returns the path of a file in the storage directory.
+     */
+    public Path path(String file) {
+        return dir.resolve(file);
+    }
+
+    /**
+     * Replaces the contents of trains.json with the given trains.
+     *
+     * @param trains the trains to write
+     * @throws IOException if writing fails
+     */
+    public void writeTrains(List<Train> trains) throws IOException {
+        new ObjectMapper().writeValue(path("trains.json").toFile(), trains);
+    }
+
+    /**
+     * Returns a configuration for the JSON backend on this directory.
+     */
+    public StorageConfig json() {
+        return new StorageConfig(properties("json"));
+    }
+
+    /**
+     * Returns a configuration for the H2 backend with its database file in this directory.
+     * The JSON files are imported into the database the first time it is opened.
+     */
+    public StorageConfig h2() {
+        Properties properties = properties("h2");
+        properties.setProperty(StorageConfig.H2_URL, "jdbc:h2:" + path("trainmate").toAbsolutePath());
+        return new StorageConfig(properties);
+    }
+
+    private Properties properties(String backend) {
+        Properties properties = new Properties();
+        properties.setProperty(StorageConfig.BACKEND, backend);
+        properties.setProperty(StorageConfig.TRAINS_PATH, path("trains.json").toString());
+        properties.setProperty(StorageConfig.USERS_PATH, path("users.json").toString());
+        properties.setProperty(StorageConfig.WAITLIST_PATH, path("waitlist.json").toString());
+        return properties;
+    }
+
+    /**
+     * Deletes the directory and everything in it.
+     *
+     * @throws IOException if a file cannot be deleted
+     */
+    public void delete() throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
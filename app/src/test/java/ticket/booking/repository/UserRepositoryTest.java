@@ -0,0 +1,122 @@
+package ticket.booking.repository;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ticket.booking.entities.Ticket;
+import ticket.booking.entities.Train;
+import ticket.booking.entities.User;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the same user and ticket checks against the JSON and the H2 backend.
+ */
+public class UserRepositoryTest {
+
+    private static final String DATE = "2025-06-01";
+
+    private TestStorage storage;
+    private Train delhi;
+    private Train mumbai;
+
+    @Before
+    public void setUp() throws IOException {
+        storage = TestStorage.create("user-repository-test");
+        delhi = train("Bengaluru to Delhi", "12345");
+        mumbai = train("Bengaluru to Mumbai", "67890");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        storage.delete();
+    }
+
+    @Test public void jsonBackendRoundTripsUsersAndTickets() throws IOException {
+        assertRoundTrip(storage.json());
+    }
+
+    @Test public void h2BackendRoundTripsUsersAndTickets() throws IOException {
+        assertRoundTrip(storage.h2());
+    }
+
+    @Test public void jsonBackendFindsTicketsByTrainAndDate() throws IOException {
+        assertTicketLookups(storage.json());
+    }
+
+    @Test public void h2BackendFindsTicketsByTrainAndDate() throws IOException {
+        assertTicketLookups(storage.h2());
+    }
+
+    private void assertRoundTrip(StorageConfig config) throws IOException {
+        UserRepository repository = config.userRepository();
+        assertTrue(repository.findAll().isEmpty());
+
+        User asha = user("asha", ticket("t1", "asha-id", delhi, DATE), ticket("t2", "asha-id", mumbai, DATE));
+        repository.saveAll(Arrays.asList(asha, user("ravi")));
+
+        // Saving a user again replaces the stored one, tickets included, and keeps its position
+        asha.getTicketsBooked().remove(0);
+        repository.save(asha);
+        repository.save(user("meera"));
+
+        List<User> users = reopen(config).userRepository().findAll();
+        assertEquals(Arrays.asList("asha", "ravi", "meera"), users.stream().map(User::getName).collect(Collectors.toList()));
+        assertEquals(Arrays.asList("t2"), ticketIds(users.get(0).getTicketsBooked()));
+        assertEquals("hash-asha", users.get(0).getHashedPassword());
+        assertTrue(users.get(1).getTicketsBooked().isEmpty());
+    }
+
+    private void assertTicketLookups(StorageConfig config) throws IOException {
+        config.userRepository().findAll();
+        config.userRepository().saveAll(Arrays.asList(
+                user("asha", ticket("t1", "asha-id", delhi, DATE), ticket("t2", "asha-id", mumbai, DATE),
+                        ticket("t3", "asha-id", delhi, "2025-06-02")),
+                user("ravi", ticket("t4", "ravi-id", delhi, DATE))));
+
+        TicketRepository tickets = config.ticketRepository();
+        assertEquals(Arrays.asList("t1", "t4"), sorted(ticketIds(tickets.findByTrainAndDate("Bengaluru to Delhi", DATE))));
+        assertEquals(Arrays.asList("t1", "t4"), sorted(ticketIds(tickets.findByTrainAndDate("bengaluru to delhi", DATE))));
+        assertEquals(Arrays.asList("t3"), ticketIds(tickets.findByTrainAndDate("Bengaluru to Delhi", "2025-06-02")));
+        assertTrue(tickets.findByTrainAndDate("Unknown", DATE).isEmpty());
+
+        assertEquals(Arrays.asList("t1", "t2", "t3"), ticketIds(tickets.findByUserId("asha-id")));
+        assertTrue(tickets.findByUserId("nobody").isEmpty());
+    }
+
+    /**
+     * Returns a configuration on the same storage that has not read anything yet.
+     */
+    private StorageConfig reopen(StorageConfig config) {
+        return config.getBackend().equals("h2") ? storage.h2() : storage.json();
+    }
+
+    private static User user(String name, Ticket... tickets) {
+        return new User(name, null, "hash-" + name, new ArrayList<>(Arrays.asList(tickets)), name + "-id");
+    }
+
+    private static Ticket ticket(String ticketId, String userId, Train train, String date) {
+        return new Ticket(ticketId, userId, "bengaluru", "delhi", date, train, 0, 0);
+    }
+
+    private static Train train(String trainId, String trainNumber) {
+        List<List<Integer>> seats = new ArrayList<>();
+        seats.add(new ArrayList<>(Arrays.asList(0, 0)));
+        return new Train(trainId, trainNumber, seats, new LinkedHashMap<>(), new ArrayList<>(Arrays.asList("bengaluru", "delhi")));
+    }
+
+    private static List<String> ticketIds(List<Ticket> tickets) {
+        return tickets.stream().map(Ticket::getTicketId).collect(Collectors.toList());
+    }
+
+    private static List<String> sorted(List<String> values) {
+        return values.stream().sorted().collect(Collectors.toList());
+    }
+}
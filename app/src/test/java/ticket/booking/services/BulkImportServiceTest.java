@@ -0,0 +1,99 @@
+package ticket.booking.services;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ticket.booking.entities.Train;
+import ticket.booking.repository.TestStorage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class BulkImportServiceTest {
+
+    private TestStorage storage;
+    private UserBookingService userBookingService;
+    private BulkImportService bulkImportService;
+
+    @Before
+    public void setUp() throws IOException {
+        storage = TestStorage.create("bulk-import-test");
+        userBookingService = new UserBookingService(storage.json());
+        bulkImportService = new BulkImportService(userBookingService);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        storage.delete();
+    }
+
+    @Test public void importsCsvTrainsIntoTheSharedCatalog() throws IOException {
+        Path csv = storage.path("trains.csv");
+        Files.writeString(csv, "train_id,train_number,rows,columns,stations\n"
+                + "Pune Express,77777,2,3,Pune@06:00:00|Mumbai@09:00:00\n"
+                + "Pune Express,77777,2,3,pune@06:00:00|mumbai@09:00:00\n");
+
+        BulkImportService.ImportResult result = bulkImportService.importTrains(csv);
+
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getDuplicates());
+        Train train = userBookingService.findTrain("77777");
+        assertNotNull(train);
+        assertEquals(6, userBookingService.getTrainService().getCatalog().getFreeSeats("Pune Express"));
+        assertEquals("pune", train.getStations().get(0));
+    }
+
+    @Test public void rejectsCsvSeatLayoutsWithoutRowsOrColumns() throws IOException {
+        Path csv = storage.path("trains.csv");
+        Files.writeString(csv, "train_id,train_number,rows,columns,stations\n"
+                + "No Columns,11111,2,0,pune|mumbai\n"
+                + "Negative Rows,22222,-1,3,pune|mumbai\n"
+                + "Not A Number,33333,two,3,pune|mumbai\n");
+
+        BulkImportService.ImportResult result = bulkImportService.importTrains(csv);
+
+        assertEquals(0, result.getImported());
+        assertEquals(3, result.getErrors().size());
+        assertEquals("Line 2: columns must be greater than 0 but was 0", result.getErrors().get(0));
+        assertEquals("Line 3: rows must be greater than 0 but was -1", result.getErrors().get(1));
+        assertEquals("Line 4: rows must be a number but was 'two'", result.getErrors().get(2));
+    }
+
+    @Test public void normalizesStationNamesInJsonLines() throws IOException {
+        Path jsonl = storage.path("trains.jsonl");
+        Files.writeString(jsonl, "{\"train_id\":\"Goa Express\",\"train_number\":\"88888\",\"seats\":[[0,0]],"
+                + "\"station_arrival_times\":{\" Madgaon \":\"06:00:00\",\"PUNE\":\"14:30:00\"},"
+                + "\"stations\":[\" Madgaon \",\"PUNE\"]}\n");
+
+        assertEquals(1, bulkImportService.importTrains(jsonl).getImported());
+
+        Train train = userBookingService.findTrain("88888");
+        assertEquals(Arrays.asList("madgaon", "pune"), train.getStations());
+        assertEquals(Arrays.asList("madgaon", "pune"), new ArrayList<>(train.getStationArrivalTimes().keySet()));
+    }
+
+    @Test public void rejectsBlankStationsAndUnparseableArrivalTimes() throws IOException {
+        Path csv = storage.path("trains.csv");
+        Files.writeString(csv, "train_id,train_number,rows,columns,stations\n"
+                + "Blank Stop,11111,1,2,pune@06:00:00| @07:00:00|mumbai@09:00:00\n"
+                + "Bad Time,22222,1,2,pune@6 am|mumbai@09:00:00\n"
+                + "Late,33333,1,2,pune@25:00:00|mumbai@09:00:00\n");
+        Path jsonl = storage.path("trains.jsonl");
+        Files.writeString(jsonl, "{\"train_id\":\"Blank\",\"train_number\":\"44444\",\"seats\":[[0]],"
+                + "\"station_arrival_times\":{},\"stations\":[\"pune\",\"  \"]}\n");
+
+        BulkImportService.ImportResult result = bulkImportService.importTrains(csv);
+
+        assertEquals(0, result.getImported());
+        assertEquals(Arrays.asList(
+                "Line 2: station names must not be blank",
+                "Line 3: arrival time at pune must be HH:mm:ss but was '6 am'",
+                "Line 4: arrival time at pune must be HH:mm:ss but was '25:00:00'"), result.getErrors());
+        assertEquals(Arrays.asList("Line 1: station names must not be blank"), bulkImportService.importTrains(jsonl).getErrors());
+    }
+}
@@ -0,0 +1,124 @@
+package ticket.booking.services;
+
+import org.junit.Before;
+import org.junit.Test;
+import ticket.booking.entities.Train;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class StationIndexTest {
+
+    private StationIndex stationIndex;
+
+    @Before
+    public void setUp() {
+        List<Train> trains = Arrays.asList(
+                train("Bengaluru to Delhi", "12345", "bengaluru", "hyderabad", "pune", "delhi"),
+                train("Hyderabad to Delhi", "54321", "chennai", "hyderabad", "pune", "delhi"),
+                train("Mumbai to Mysuru", "67890", "Mumbai", "Mysuru"));
+        stationIndex = new StationIndex(TrainCatalog.of(trains));
+    }
+
+    @Test public void indexesEachStationOnce() {
+        assertEquals(7, stationIndex.size());
+    }
+
+    @Test public void resolvesExactNamesIgnoringCaseAndSpaces() {
+        assertEquals("pune", stationIndex.resolve("pune"));
+        assertEquals("delhi", stationIndex.resolve("  DELHI "));
+        assertEquals("mumbai", stationIndex.resolve("mumbai"));
+    }
+
+    @Test public void resolvesAUniquePrefix() {
+        assertEquals("hyderabad", stationIndex.resolve("hyd"));
+        assertEquals("mysuru", stationIndex.resolve("my"));
+    }
+
+    @Test public void resolvesMisspellingsWithinTheTypoBudget() {
+        assertEquals("delhi", stationIndex.resolve("Dehli"));
+        assertEquals("chennai", stationIndex.resolve("chenai"));
+        assertEquals("bengaluru", stationIndex.resolve("bengalor"));
+        assertEquals("pune", stationIndex.resolve("pume"));
+    }
+
+    @Test public void leavesUnknownOrAmbiguousInputUnresolved() {
+        assertNull(stationIndex.resolve("xyz"));
+        assertNull(stationIndex.resolve("kolkata"));
+        assertNull(stationIndex.resolve("m"));
+        assertNull(stationIndex.resolve(""));
+        assertNull(stationIndex.resolve(null));
+    }
+
+    @Test public void completesPrefixesInAlphabeticalOrder() {
+        assertEquals(Arrays.asList("mumbai", "mysuru"), stationIndex.complete("M", 5));
+        assertEquals(Arrays.asList("bengaluru", "chennai"), stationIndex.complete("", 2));
+        assertTrue(stationIndex.complete("x", 5).isEmpty());
+    }
+
+    @Test public void fuzzyMatchesClosestFirst() {
+        assertEquals(Arrays.asList("pune"), stationIndex.fuzzyMatch("pun", 1, 5));
+        assertEquals(Arrays.asList("delhi"), stationIndex.fuzzyMatch("dehli", 2, 5));
+        assertTrue(stationIndex.fuzzyMatch("dehli", 1, 5).isEmpty());
+    }
+
+    @Test public void suggestsPrefixMatchesBeforeMisspellings() {
+        assertEquals(Arrays.asList("mumbai", "mysuru"), stationIndex.suggest("m", 5));
+        assertEquals(Arrays.asList("hyderabad"), stationIndex.suggest("hydrabad", 5));
+        assertTrue(stationIndex.suggest("xyz", 5).isEmpty());
+    }
+
+    @Test public void fuzzyMatchAgreesWithTheFullDistanceTable() {
+        List<String> stations = Arrays.asList("bengaluru", "bangalore", "belagavi", "ballari", "bidar", "pune",
+                "puri", "patna", "panaji", "delhi", "dehradun", "dhanbad", "durg", "agra", "ajmer");
+        StationIndex index = new StationIndex(stations);
+
+        for (String input : Arrays.asList("bengalor", "puen", "d", "delih", "agar", "belgaum", "xyz", "patnaa", "")) {
+            for (int maxDistance = 0; maxDistance <= 3; maxDistance++) {
+                List<String> expected = new ArrayList<>();
+                for (String station : stations) {
+                    if (distance(input, station) <= maxDistance) {
+                        expected.add(station);
+                    }
+                }
+                expected.sort(Comparator.comparingInt((String station) -> distance(input, station))
+                        .thenComparing(Comparator.naturalOrder()));
+                assertEquals(input + " within " + maxDistance, expected, index.fuzzyMatch(input, maxDistance, stations.size()));
+            }
+        }
+    }
+
+    @Test public void indexesTheGivenStations() {
+        StationIndex route = new StationIndex(Arrays.asList("Bengaluru", "Pune", "Delhi"));
+
+        assertEquals(3, route.size());
+        assertEquals("pune", route.resolve("pume"));
+        assertNull(route.resolve("hyderabad"));
+    }
+
+    private static int distance(String a, String b) {
+        int[][] table = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                if (i == 0 || j == 0) {
+                    table[i][j] = i + j;
+                } else {
+                    int substitution = table[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                    table[i][j] = Math.min(substitution, Math.min(table[i - 1][j], table[i][j - 1]) + 1);
+                }
+            }
+        }
+        return table[a.length()][b.length()];
+    }
+
+    private static Train train(String trainId, String trainNumber, String... stations) {
+        List<List<Integer>> seats = new ArrayList<>();
+        seats.add(new ArrayList<>(Arrays.asList(0, 0)));
+        return new Train(trainId, trainNumber, seats, new LinkedHashMap<>(), new ArrayList<>(Arrays.asList(stations)));
+    }
+}
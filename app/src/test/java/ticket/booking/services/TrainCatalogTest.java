@@ -0,0 +1,116 @@
+package ticket.booking.services;
+
+import org.junit.Test;
+import ticket.booking.entities.Train;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TrainCatalogTest {
+
+    @Test public void countsFreeSeatsWhenTrainsEnter() {
+        TrainCatalog catalog = TrainCatalog.of(Arrays.asList(train("Bengaluru to Delhi", "12345", 0, 1, 0), train("Hyderabad to Delhi", "54321", 1, 1, 0)));
+
+        assertEquals(2, catalog.getFreeSeats("bengaluru to delhi"));
+        assertEquals(1, catalog.getFreeSeats("Hyderabad to Delhi"));
+        assertEquals(0, catalog.getFreeSeats("unknown"));
+    }
+
+    @Test public void batchKeepsCountersOfUntouchedTrainsAndCountsOnlyAdditions() {
+        Train booked = train("Bengaluru to Delhi", "12345", 0, 0, 0);
+        TrainCatalog catalog = TrainCatalog.of(Collections.singletonList(booked));
+
+        // The counter moves without a recount, so a recount would show up as 3 again
+        catalog = catalog.withSeatChange(catalog.findById("Bengaluru to Delhi"), -1);
+        catalog = catalog.withTrains(Arrays.asList(train("Delhi to Bengaluru", "67890", 0, 1, 1), train("Hyderabad to Delhi", "54321", 0, 0, 1)));
+
+        assertEquals(3, catalog.size());
+        assertEquals(2, catalog.getFreeSeats("Bengaluru to Delhi"));
+        assertEquals(1, catalog.getFreeSeats("Delhi to Bengaluru"));
+        assertEquals(2, catalog.getFreeSeats("Hyderabad to Delhi"));
+    }
+
+    @Test public void batchRecountsReplacedTrains() {
+        TrainCatalog catalog = TrainCatalog.of(Collections.singletonList(train("Bengaluru to Delhi", "12345", 0, 0, 0)));
+
+        catalog = catalog.withTrains(Collections.singletonList(train("BENGALURU TO DELHI", "12346", 1, 1, 0)));
+
+        assertEquals(1, catalog.size());
+        assertEquals(1, catalog.getFreeSeats("Bengaluru to Delhi"));
+        assertNull(catalog.findByNumber("12345"));
+        assertNotNull(catalog.findByNumber("12346"));
+    }
+
+    @Test public void publishedTrainsCannotBeModified() {
+        TrainCatalog catalog = TrainCatalog.of(Collections.singletonList(train("Bengaluru to Delhi", "12345", 0, 0)));
+        Train published = catalog.findByNumber("12345");
+
+        assertThrows(() -> published.setTrainNumber("99999"));
+        assertThrows(() -> published.setStations(new ArrayList<>()));
+        assertThrows(() -> published.getSeats().get(0).set(0, 1));
+        assertSame(published, catalog.findByNumber("12345"));
+        assertEquals(2, catalog.getFreeSeats("Bengaluru to Delhi"));
+
+        Train edited = published.copy();
+        edited.setTrainNumber("99999");
+        assertEquals("99999", catalog.withTrain(edited).findById("bengaluru to delhi").getTrainNumber());
+    }
+
+    @Test public void seatChangeSharesUntouchedTrainsAndRows() {
+        List<Train> trains = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            trains.add(train("Train " + i, String.valueOf(10000 + i), 0, 0));
+        }
+        TrainCatalog catalog = TrainCatalog.of(trains);
+        Train before = catalog.findById("Train 100");
+        Train neighbour = catalog.findById("Train 99");
+
+        Train booked = before.withSeat(0, 1, 1);
+        TrainCatalog next = catalog.withSeatChange(booked, -1);
+
+        assertSame(booked, next.findById("Train 100"));
+        assertSame(neighbour, next.findById("Train 99"));
+        assertSame(before.getStations(), booked.getStations());
+        assertEquals(Integer.valueOf(0), before.getSeats().get(0).get(1));
+        assertEquals(Integer.valueOf(1), booked.getSeats().get(0).get(1));
+        assertEquals(1, next.getFreeSeats("Train 100"));
+        assertEquals(2, catalog.getFreeSeats("Train 100"));
+        assertEquals(150, next.getTrains().size());
+        assertEquals("Train 149", next.getTrains().get(149).getTrainId());
+    }
+
+    @Test public void addingTrainsAcrossChunksKeepsEarlierVersionsIntact() {
+        TrainCatalog catalog = TrainCatalog.of(Collections.emptyList());
+        List<TrainCatalog> versions = new ArrayList<>();
+        for (int i = 0; i < 130; i++) {
+            catalog = catalog.withTrain(train("Train " + i, String.valueOf(10000 + i), 0));
+            versions.add(catalog);
+        }
+
+        assertEquals(130, catalog.size());
+        assertEquals(64, versions.get(63).size());
+        assertNull(versions.get(63).findById("Train 64"));
+        assertEquals("10129", catalog.getTrains().get(129).getTrainNumber());
+        assertEquals(1, catalog.getFreeSeats("train 129"));
+    }
+
+    private static void assertThrows(Runnable modification) {
+        try {
+            modification.run();
+            fail("expected the published train to reject the change");
+        } catch (UnsupportedOperationException expected) {
+            // read-only
+        }
+    }
+
+    private static Train train(String trainId, String trainNumber, Integer... seats) {
+        List<List<Integer>> layout = new ArrayList<>();
+        layout.add(new ArrayList<>(Arrays.asList(seats)));
+        return new Train(trainId, trainNumber, layout, new LinkedHashMap<>(), new ArrayList<>(Arrays.asList("bengaluru", "delhi")));
+    }
+}
@@ -0,0 +1,360 @@
+package ticket.booking.services;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ticket.booking.entities.Ticket;
+import ticket.booking.entities.Train;
+import ticket.booking.entities.User;
+import ticket.booking.entities.WaitlistEntry;
+import ticket.booking.repository.JsonTrainRepository;
+import ticket.booking.repository.JsonUserRepository;
+import ticket.booking.repository.JsonWaitlistRepository;
+import ticket.booking.repository.StorageConfig;
+import ticket.booking.repository.TestStorage;
+import ticket.booking.repository.WaitlistRepository;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class UserBookingServiceTest {
+
+    private static final String TRAIN = "Bengaluru to Delhi";
+    private static final String DATE = "2025-06-01";
+
+    private TestStorage storage;
+
+    @Before
+    public void setUp() throws IOException {
+        storage = TestStorage.create("booking-test");
+        List<List<Integer>> seats = new ArrayList<>();
+        seats.add(new ArrayList<>(Arrays.asList(0, 0)));
+        Train train = new Train(TRAIN, "12345", seats, new LinkedHashMap<>(), new ArrayList<>(Arrays.asList("bengaluru", "delhi")));
+        storage.writeTrains(Collections.singletonList(train));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        storage.delete();
+    }
+
+    @Test public void cancellationPromotesTheNextWaitlistedUser() throws IOException {
+        UserBookingService service = new UserBookingService(storage.json());
+        User waiting = signUp(service, "waiting");
+        service.joinWaitlist("bengaluru", "delhi", DATE, train(service), WaitlistEntry.DEFAULT_PRIORITY_CLASS);
+
+        User holder = signUp(service, "holder");
+        assertTrue(service.bookTrainTicket(holder.getUserId(), "bengaluru", "delhi", DATE, train(service), 0, 1));
+        assertEquals(1, service.cancelTickets(ticketIds(holder)));
+
+        assertTrue(holder.getTicketsBooked().isEmpty());
+        assertEquals(1, waiting.getTicketsBooked().size());
+        Ticket promoted = waiting.getTicketsBooked().get(0);
+        assertEquals(Integer.valueOf(0), promoted.getRow());
+        assertEquals(Integer.valueOf(1), promoted.getSeat());
+
+        // The seat changes hands without ever returning to inventory
+        assertEquals(Integer.valueOf(1), train(service).getSeats().get(0).get(1));
+        assertEquals(1, freeSeats(service));
+        assertTrue(service.getWaitlist(train(service), DATE).isEmpty());
+        assertTrue(new WaitlistService(new JsonWaitlistRepository(storage.path("waitlist.json").toString())).getWaitlist(TRAIN, DATE).isEmpty());
+    }
+
+    @Test public void cancellationReleasesTheSeatWhenNobodyIsWaiting() throws IOException {
+        UserBookingService service = new UserBookingService(storage.json());
+        User holder = signUp(service, "holder");
+        assertTrue(service.bookTrainTicket(holder.getUserId(), "bengaluru", "delhi", DATE, train(service), 0, 1));
+        assertEquals(1, freeSeats(service));
+
+        assertTrue(service.cancelTicket(holder.getTicketsBooked().get(0).getTicketId()));
+
+        assertTrue(holder.getTicketsBooked().isEmpty());
+        assertEquals(Integer.valueOf(0), train(service).getSeats().get(0).get(1));
+        assertEquals(2, freeSeats(service));
+    }
+
+    @Test public void waitlistOnAnotherDateIsNotPromoted() throws IOException {
+        UserBookingService service = new UserBookingService(storage.json());
+        User waiting = signUp(service, "waiting");
+        service.joinWaitlist("bengaluru", "delhi", "2025-07-01", train(service), WaitlistEntry.DEFAULT_PRIORITY_CLASS);
+
+        User holder = signUp(service, "holder");
+        service.bookTrainTicket(holder.getUserId(), "bengaluru", "delhi", DATE, train(service), 0, 0);
+        service.cancelTickets(ticketIds(holder));
+
+        assertTrue(waiting.getTicketsBooked().isEmpty());
+        assertEquals(2, freeSeats(service));
+        assertEquals(1, service.getWaitlist(train(service), "2025-07-01").size());
+    }
+
+    @Test public void cancellingATrainDatePromotesWaitlistInBatch() throws IOException {
+        UserBookingService service = new UserBookingService(storage.json());
+        User first = signUp(service, "first");
+        service.joinWaitlist("bengaluru", "delhi", DATE, train(service), 1);
+        User urgent = signUp(service, "urgent");
+        service.joinWaitlist("bengaluru", "delhi", DATE, train(service), 0);
+
+        User holderA = signUp(service, "holder-a");
+        service.bookTrainTicket(holderA.getUserId(), "bengaluru", "delhi", DATE, train(service), 0, 0);
+        User holderB = signUp(service, "holder-b");
+        service.bookTrainTicket(holderB.getUserId(), "bengaluru", "delhi", DATE, train(service), 0, 1);
+        assertEquals(0, freeSeats(service));
+
+        assertEquals(2, service.cancelAllBookings(train(service), DATE));
+
+        assertTrue(holderA.getTicketsBooked().isEmpty());
+        assertTrue(holderB.getTicketsBooked().isEmpty());
+        assertEquals(1, urgent.getTicketsBooked().size());
+        assertEquals(1, first.getTicketsBooked().size());
+        assertEquals(0, freeSeats(service));
+    }
+
+    @Test public void cancellingATicketForAFreeSeatPromotesNobody() throws IOException {
+        UserBookingService service = new UserBookingService(storage.json());
+        User waiting = signUp(service, "waiting");
+        service.joinWaitlist("bengaluru", "delhi", DATE, train(service), WaitlistEntry.DEFAULT_PRIORITY_CLASS);
+
+        // An imported ticket for a seat the catalog shows as free
+        User imported = new User("imported", "secret", "secret", new ArrayList<>(), "imported-id");
+        imported.getTicketsBooked().add(new Ticket("imported-ticket", "imported-id", "bengaluru", "delhi", DATE, train(service), 0, 0));
+        assertEquals(1, service.addUsers(Collections.singletonList(imported)));
+
+        assertEquals(1, service.cancelAllBookings(train(service), DATE));
+
+        assertTrue(waiting.getTicketsBooked().isEmpty());
+        assertEquals(1, service.getWaitlist(train(service), DATE).size());
+        assertEquals(2, freeSeats(service));
+
+        User other = signUp(service, "other");
+        assertTrue(service.bookTrainTicket(other.getUserId(), "bengaluru", "delhi", DATE, train(service), 0, 0));
+        assertTrue(waiting.getTicketsBooked().isEmpty());
+    }
+
+    @Test public void failedSaveLeavesTicketsWaitlistAndSeatsUnchanged() throws IOException {
+        StorageConfig config = storage.json();
+        FailingUserRepository users = new FailingUserRepository(storage.path("users.json").toString());
+        UserBookingService service = new UserBookingService(users, config.ticketRepository(),
+                new WaitlistService(config.waitlistRepository()), new TrainService(new JsonTrainRepository(storage.path("trains.json").toString())));
+
+        signUp(service, "waiting");
+        service.joinWaitlist("bengaluru", "delhi", DATE, train(service), WaitlistEntry.DEFAULT_PRIORITY_CLASS);
+        User holder = signUp(service, "holder");
+        service.bookTrainTicket(holder.getUserId(), "bengaluru", "delhi", DATE, train(service), 0, 1);
+
+        users.failing = true;
+        try {
+            service.cancelTickets(ticketIds(holder));
+            fail("expected the save to fail");
+        } catch (IOException expected) {
+            // rolled back below
+        }
+
+        assertEquals(1, holder.getTicketsBooked().size());
+        assertEquals(1, service.getWaitlist(train(service), DATE).size());
+        assertEquals(Integer.valueOf(1), train(service).getSeats().get(0).get(1));
+        assertEquals(1, freeSeats(service));
+    }
+
+    @Test public void bookingStoresCanonicalStationNames() throws IOException {
+        UserBookingService service = new UserBookingService(storage.json());
+        User holder = signUp(service, "holder");
+
+        assertTrue(service.bookTrainTicket(holder.getUserId(), "Bengalor", "Dehli", DATE, train(service), 0, 0));
+
+        Ticket ticket = holder.getTicketsBooked().get(0);
+        assertEquals("bengaluru", ticket.getSource());
+        assertEquals("delhi", ticket.getDestination());
+    }
+
+    @Test public void bookingResolvesStationsAgainstTheTrainsRoute() throws IOException {
+        // "bengal" is ambiguous across the network but only matches bengaluru on this train
+        List<List<Integer>> seats = new ArrayList<>();
+        seats.add(new ArrayList<>(Arrays.asList(0, 0)));
+        storage.writeTrains(Arrays.asList(
+                new Train(TRAIN, "12345", seats, new LinkedHashMap<>(), new ArrayList<>(Arrays.asList("bengaluru", "delhi"))),
+                new Train("Kolkata Local", "22222", seats, new LinkedHashMap<>(), new ArrayList<>(Arrays.asList("bengal junction", "howrah")))));
+        UserBookingService service = new UserBookingService(storage.json());
+        User holder = signUp(service, "holder");
+        assertNull(service.resolveStation("bengal"));
+
+        assertTrue(service.bookTrainTicket(holder.getUserId(), "bengal", "delhi", DATE, train(service), 0, 0));
+        assertEquals("bengaluru", holder.getTicketsBooked().get(0).getSource());
+    }
+
+    @Test public void bookingFailsWhenTheTrainDoesNotRunBetweenTheStations() throws IOException {
+        UserBookingService service = new UserBookingService(storage.json());
+        User holder = signUp(service, "holder");
+
+        assertFalse(service.bookTrainTicket(holder.getUserId(), "delhi", "bengaluru", DATE, train(service), 0, 0));
+        assertFalse(service.bookTrainTicket(holder.getUserId(), "bengaluru", "mumbai", DATE, train(service), 0, 0));
+        assertTrue(holder.getTicketsBooked().isEmpty());
+        assertEquals(2, freeSeats(service));
+    }
+
+    @Test public void analyticsCountBookingsMadeBeforeAndAfterFirstUse() throws IOException {
+        UserBookingService service = new UserBookingService(storage.json());
+        User holder = signUp(service, "holder");
+        service.bookTrainTicket(holder.getUserId(), "bengaluru", "delhi", DATE, train(service), 0, 0);
+
+        BookingAnalytics analytics = service.getAnalytics();
+        assertEquals(0.5, analytics.getLoadFactors().get(TRAIN).get(DATE), 0.0001);
+
+        service.bookTrainTicket(holder.getUserId(), "bengaluru", "delhi", DATE, train(service), 0, 1);
+        assertEquals(1.0, analytics.getLoadFactors().get(TRAIN).get(DATE), 0.0001);
+        assertEquals(Long.valueOf(2), analytics.getBusiestSegments(1).get("bengaluru -> delhi"));
+    }
+
+    @Test public void analyticsCombineASnapshotWithEventsRecordedBeforeItIsAggregated() throws IOException {
+        UserBookingService service = new UserBookingService(storage.json());
+        User holder = signUp(service, "holder");
+        service.bookTrainTicket(holder.getUserId(), "bengaluru", "delhi", DATE, train(service), 0, 0);
+        service.bookTrainTicket(holder.getUserId(), "bengaluru", "delhi", DATE, train(service), 0, 1);
+        Ticket first = holder.getTicketsBooked().get(0);
+        Ticket second = holder.getTicketsBooked().get(1);
+
+        // The snapshot held only the first ticket; the second was booked and the first cancelled meanwhile
+        BookingAnalytics analytics = new BookingAnalytics();
+        analytics.onTicketBooked(second);
+        analytics.onTicketCancelled(first);
+        analytics.addAll(Collections.singletonList(first));
+
+        assertEquals(0.5, analytics.getLoadFactors().get(TRAIN).get(DATE), 0.0001);
+        assertEquals(Long.valueOf(1), analytics.getBookingsByStationPair().get("bengaluru -> delhi"));
+    }
+
+    @Test public void savedCancellationIsNotReportedAsFailureWhenWaitlistCleanupFails() throws IOException {
+        StorageConfig config = storage.json();
+        FailingWaitlistRepository waitlist = new FailingWaitlistRepository(config.waitlistRepository());
+        UserBookingService service = new UserBookingService(config.userRepository(), config.ticketRepository(),
+                new WaitlistService(waitlist), new TrainService(config.trainRepository()), config.unitOfWork());
+
+        User waiting = signUp(service, "waiting");
+        service.joinWaitlist("bengaluru", "delhi", DATE, train(service), WaitlistEntry.DEFAULT_PRIORITY_CLASS);
+        User holder = signUp(service, "holder");
+        service.bookTrainTicket(holder.getUserId(), "bengaluru", "delhi", DATE, train(service), 0, 1);
+
+        waitlist.failing = true;
+        assertEquals(1, service.cancelTickets(ticketIds(holder)));
+
+        assertEquals(1, waiting.getTicketsBooked().size());
+        assertNotNull(waiting.getTicketsBooked().get(0).getWaitlistEntryId());
+        assertEquals(1, config.waitlistRepository().findAll().size());
+
+        // The stale entry is dropped on the next load instead of promoting the same user again
+        UserBookingService restarted = new UserBookingService(storage.json());
+        assertTrue(restarted.getWaitlist(train(restarted), DATE).isEmpty());
+        assertTrue(new JsonWaitlistRepository(storage.path("waitlist.json").toString()).findAll().isEmpty());
+    }
+
+    @Test public void failedWaitlistCleanupRollsBackTheWholeCancellationOnH2() throws IOException {
+        StorageConfig config = storage.h2();
+        FailingWaitlistRepository waitlist = new FailingWaitlistRepository(config.waitlistRepository());
+        UserBookingService service = new UserBookingService(config.userRepository(), config.ticketRepository(),
+                new WaitlistService(waitlist), new TrainService(config.trainRepository()), config.unitOfWork());
+
+        User waiting = signUp(service, "waiting");
+        service.joinWaitlist("bengaluru", "delhi", DATE, train(service), WaitlistEntry.DEFAULT_PRIORITY_CLASS);
+        User holder = signUp(service, "holder");
+        service.bookTrainTicket(holder.getUserId(), "bengaluru", "delhi", DATE, train(service), 0, 1);
+
+        waitlist.failing = true;
+        try {
+            service.cancelTickets(ticketIds(holder));
+            fail("expected the cancellation to fail");
+        } catch (IOException expected) {
+            // rolled back below
+        }
+
+        assertEquals(1, holder.getTicketsBooked().size());
+        assertTrue(waiting.getTicketsBooked().isEmpty());
+        assertEquals(1, service.getWaitlist(train(service), DATE).size());
+        assertEquals(1, freeSeats(service));
+
+        for (User stored : config.userRepository().findAll()) {
+            assertEquals(stored.getName().equals("holder") ? 1 : 0, stored.getTicketsBooked().size());
+        }
+        assertEquals(1, config.waitlistRepository().findAll().size());
+
+        waitlist.failing = false;
+        assertEquals(1, service.cancelTickets(ticketIds(holder)));
+        assertEquals(1, waiting.getTicketsBooked().size());
+        assertTrue(config.waitlistRepository().findAll().isEmpty());
+        assertEquals(1, config.ticketRepository().findByTrainAndDate(TRAIN, DATE).size());
+    }
+
+    private static User signUp(UserBookingService service, String name) throws IOException {
+        User user = new User(name, "secret", "secret", new ArrayList<>(), name + "-id");
+        assertTrue(service.signUp(user));
+        return user;
+    }
+
+    private static Train train(UserBookingService service) {
+        return service.findTrain("12345");
+    }
+
+    private static int freeSeats(UserBookingService service) {
+        return service.searchAvailableTrains("bengaluru", "delhi", 0, false).get(0).getFreeSeats();
+    }
+
+    private static List<String> ticketIds(User user) {
+        List<String> ids = new ArrayList<>();
+        user.getTicketsBooked().forEach(ticket -> ids.add(ticket.getTicketId()));
+        return ids;
+    }
+
+    /**
+     * Stores users as JSON but can be switched to fail every batch save.
+     */
+    private static class FailingUserRepository extends JsonUserRepository {
+        private boolean failing;
+
+        FailingUserRepository(String path) {
+            super(path);
+        }
+
+        @Override
+        public synchronized void saveAll(Collection<User> users) throws IOException {
+            if (failing) {
+                throw new IOException("disk full");
+            }
+            super.saveAll(users);
+        }
+    }
+
+    /**
+     * Delegates to a real waitlist repository but can be switched to fail every removal.
+     */
+    private static class FailingWaitlistRepository implements WaitlistRepository {
+        private final WaitlistRepository delegate;
+        private boolean failing;
+
+        FailingWaitlistRepository(WaitlistRepository delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public List<WaitlistEntry> findAll() throws IOException {
+            return delegate.findAll();
+        }
+
+        @Override
+        public void save(WaitlistEntry entry) throws IOException {
+            delegate.save(entry);
+        }
+
+        @Override
+        public void deleteAll(Collection<WaitlistEntry> entries) throws IOException {
+            if (failing) {
+                throw new IOException("disk full");
+            }
+            delegate.deleteAll(entries);
+        }
+    }
+}
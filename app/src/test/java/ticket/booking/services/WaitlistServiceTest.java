@@ -0,0 +1,97 @@
+package ticket.booking.services;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ticket.booking.entities.WaitlistEntry;
+import ticket.booking.repository.JsonWaitlistRepository;
+import ticket.booking.repository.TestStorage;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class WaitlistServiceTest {
+
+    private static final String TRAIN = "Bengaluru to Delhi";
+    private static final String DATE = "2025-06-01";
+
+    private TestStorage storage;
+    private WaitlistService waitlistService;
+
+    @Before
+    public void setUp() throws IOException {
+        storage = TestStorage.create("waitlist-test");
+        waitlistService = new WaitlistService(repository());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        storage.delete();
+    }
+
+    @Test public void promotesLowerPriorityClassFirst() throws IOException {
+        waitlistService.enqueue("general", TRAIN, "bengaluru", "delhi", DATE, 2);
+        waitlistService.enqueue("senior", TRAIN, "bengaluru", "delhi", DATE, 0);
+        waitlistService.enqueue("tatkal", TRAIN, "bengaluru", "delhi", DATE, 1);
+
+        assertEquals("senior", waitlistService.poll(TRAIN, DATE).getUserId());
+        assertEquals("tatkal", waitlistService.poll(TRAIN, DATE).getUserId());
+        assertEquals("general", waitlistService.poll(TRAIN, DATE).getUserId());
+        assertNull(waitlistService.poll(TRAIN, DATE));
+    }
+
+    @Test public void promotesInJoinOrderWithinAPriorityClass() throws IOException {
+        waitlistService.enqueue("first", TRAIN, "bengaluru", "delhi", DATE, 1);
+        waitlistService.enqueue("second", TRAIN, "bengaluru", "delhi", DATE, 1);
+        waitlistService.enqueue("urgent", TRAIN, "bengaluru", "delhi", DATE, 0);
+        waitlistService.enqueue("third", TRAIN, "bengaluru", "delhi", DATE, 1);
+
+        assertEquals(List.of("urgent", "first", "second", "third"), userIds(waitlistService.getWaitlist(TRAIN, DATE)));
+    }
+
+    @Test public void keepsSeparateWaitlistsPerTrainAndDate() throws IOException {
+        waitlistService.enqueue("june", TRAIN, "bengaluru", "delhi", DATE, 0);
+        waitlistService.enqueue("july", TRAIN, "bengaluru", "delhi", "2025-07-01", 0);
+
+        assertEquals("june", waitlistService.poll(TRAIN.toUpperCase(), DATE).getUserId());
+        assertNull(waitlistService.poll(TRAIN, DATE));
+        assertNull(waitlistService.poll("Delhi to Bengaluru", "2025-07-01"));
+    }
+
+    @Test public void reloadsStoredEntriesInTheSameOrder() throws IOException {
+        waitlistService.enqueue("first", TRAIN, "bengaluru", "delhi", DATE, 1);
+        waitlistService.enqueue("second", TRAIN, "bengaluru", "delhi", DATE, 1);
+
+        WaitlistService reloaded = new WaitlistService(repository());
+        reloaded.enqueue("third", TRAIN, "bengaluru", "delhi", DATE, 1);
+
+        assertEquals(List.of("first", "second", "third"), userIds(reloaded.getWaitlist(TRAIN, DATE)));
+    }
+
+    @Test public void restoredEntriesKeepTheirPlaceUntilConfirmed() throws IOException {
+        waitlistService.enqueue("first", TRAIN, "bengaluru", "delhi", DATE, 0);
+        waitlistService.enqueue("second", TRAIN, "bengaluru", "delhi", DATE, 0);
+
+        WaitlistEntry polled = waitlistService.poll(TRAIN, DATE);
+        waitlistService.restore(Collections.singletonList(polled));
+        assertEquals(List.of("first", "second"), userIds(waitlistService.getWaitlist(TRAIN, DATE)));
+
+        polled = waitlistService.poll(TRAIN, DATE);
+        assertEquals(2, new WaitlistService(repository()).getWaitlist(TRAIN, DATE).size());
+
+        waitlistService.confirm(Collections.singletonList(polled));
+        assertEquals(List.of("second"), userIds(new WaitlistService(repository()).getWaitlist(TRAIN, DATE)));
+    }
+
+    private JsonWaitlistRepository repository() {
+        return new JsonWaitlistRepository(storage.path("waitlist.json").toString());
+    }
+
+    private static List<String> userIds(List<WaitlistEntry> entries) {
+        return entries.stream().map(WaitlistEntry::getUserId).collect(Collectors.toList());
+    }
+}